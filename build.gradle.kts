@@ -22,6 +22,8 @@ dependencies {
     implementation("com.google.guava:guava:31.1-jre")
     implementation("joda-time:joda-time:2.10.14")
     implementation("org.slf4j:slf4j-simple:2.0.0-alpha0")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.8.2")
 }
 
 java {
@@ -29,6 +31,20 @@ java {
     targetCompatibility = JavaVersion.VERSION_18
 }
 
+// Benchmarks are not part of the published artifact
+sourceSets {
+    create("benchmark") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+        runtimeClasspath += output + compileClasspath + sourceSets.main.get().runtimeClasspath
+    }
+}
+
+tasks.register<JavaExec>("signalBenchmark") {
+    description = "Measures signal-to-callback latency of the reader wait strategies"
+    classpath = sourceSets["benchmark"].runtimeClasspath
+    mainClass.set("reactor.impl.signal.SignalLatencyBenchmark")
+}
+
 tasks.getByName<Test>("test") {
     useJUnitPlatform()
 }
@@ -0,0 +1,94 @@
+package reactor.impl.signal;
+
+import com.ib.client.EReaderSignal;
+import reactor.params.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the delay between {@link EReaderSignal#issueSignal()} and the return from
+ * {@link EReaderSignal#waitForSignal()} for every {@link WaitStrategy}.
+ *
+ * <p>A producer thread stamps the time and issues a signal, the waiting thread records the delay and acknowledges
+ * it, like the reader thread which is woken up by the socket. Signals are issued with a pause, so every strategy is
+ * measured from its idle state, where the strategies differ.
+ *
+ * <p>Run with {@code ./gradlew signalBenchmark}. Arguments: number of measured signals (default 100000) and pause
+ * between signals in microseconds (default 50).
+ */
+public class SignalLatencyBenchmark {
+
+    private static final int WARMUP_SIGNALS = 20_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int signals = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long pauseNanos = (args.length > 1 ? Long.parseLong(args[1]) : 50) * 1_000;
+
+        System.out.printf("%-10s %10s %10s %10s %10s %10s%n", "strategy", "p50 us", "p90 us", "p99 us",
+            "p99.9 us", "max us"
+        );
+        boolean singleCpu = Runtime.getRuntime().availableProcessors() < 2;
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            if (singleCpu && (strategy == WaitStrategy.YIELDING || strategy == WaitStrategy.BUSY_SPIN)) {
+                // A spinning waiter takes the only CPU from the signalling thread, so results are meaningless
+                System.out.printf("%-10s skipped, needs at least 2 CPUs%n", strategy);
+                continue;
+            }
+            run(strategy, WARMUP_SIGNALS, pauseNanos);
+            long[] latencies = run(strategy, signals, pauseNanos);
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                strategy,
+                percentile(latencies, 0.5),
+                percentile(latencies, 0.9),
+                percentile(latencies, 0.99),
+                percentile(latencies, 0.999),
+                latencies[latencies.length - 1] / 1_000.0
+            );
+        }
+    }
+
+    private static long[] run(WaitStrategy strategy, int signals, long pauseNanos) throws InterruptedException {
+        EReaderSignal signal = Signals.create(strategy);
+        long[] latencies = new long[signals];
+        AtomicLong issuedAt = new AtomicLong();
+        AtomicLong received = new AtomicLong();
+
+        Thread waiter = new Thread(() -> {
+            for (int i = 0; i < signals; i++) {
+                signal.waitForSignal();
+                latencies[i] = System.nanoTime() - issuedAt.get();
+                received.lazySet(i + 1);
+            }
+        });
+        waiter.setName("SignalWaiter-" + strategy);
+        waiter.setDaemon(true);
+        waiter.start();
+
+        for (int i = 0; i < signals; i++) {
+            pause(pauseNanos);
+            issuedAt.set(System.nanoTime());
+            signal.issueSignal();
+            while (received.get() <= i) {
+                Thread.onSpinWait();
+            }
+        }
+
+        waiter.join();
+        return latencies;
+    }
+
+    private static void pause(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            LockSupport.parkNanos(Math.min(nanos, 10_000));
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000.0;
+    }
+}
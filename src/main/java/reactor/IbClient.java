@@ -3,6 +3,7 @@ package reactor;
 import com.ib.client.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
@@ -10,26 +11,69 @@ import reactor.impl.IbReader;
 import reactor.impl.IdGenerator;
 import reactor.impl.Validators;
 import reactor.impl.Wrapper;
+import reactor.impl.bars.BarBuilder;
 import reactor.impl.cache.CacheRepository;
+import reactor.impl.cache.DepthContext;
+import reactor.impl.cache.OrderBook;
+import reactor.impl.cache.TickRing;
 import reactor.impl.connection.ConnectionMonitor;
+import reactor.impl.dispatch.DispatchingWrapper;
+import reactor.impl.history.BackfillPlanner;
+import reactor.impl.history.BarStore;
+import reactor.impl.pacing.HistoricalPacer;
+import reactor.impl.pacing.OutboundScheduler;
+import reactor.impl.request.OrderRouter;
 import reactor.impl.request.RequestRepository;
+import reactor.impl.request.SharedSubscriptions;
+import reactor.impl.signal.Signals;
+import reactor.impl.utils.EpochClock;
+import reactor.impl.utils.IntSet;
 import reactor.params.AccountsSummaryParams;
+import reactor.params.BackfillParams;
+import reactor.params.BackfillProgress;
+import reactor.params.BarAggregation;
+import reactor.params.Conflation;
 import reactor.params.IbClientOptions;
+import reactor.params.OrderRequest;
 import reactor.types.*;
+import reactor.util.function.Tuples;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @SuppressWarnings("unused")
 public class IbClient implements AutoCloseable {
 
+    public static final Duration DEFAULT_CANCEL_ALL_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_PLACE_ORDER_TIMEOUT = Duration.ofSeconds(10);
+
     private static final Logger log = LoggerFactory.getLogger(IbClient.class);
     private static final DateTimeFormatter dateTimeFormatter =
         DateTimeFormatter.ofPattern("yyyyMMdd HH:mm:ss");
+    private static final DateTimeFormatter gmtDateTimeFormatter =
+        DateTimeFormatter.ofPattern("yyyyMMdd HH:mm:ss 'GMT'").withZone(ZoneOffset.UTC);
+    private static final int MAX_ALLOWED_TICKS_COUNT = 1000;
+    private static final int REALTIME_BAR_SECONDS = 5;
+    private static final long MIN_BAR_CHECK_NANOS = Duration.ofMillis(10).toNanos();
+    // Depth of the listed exchange only, SMART depth aggregation is not requested
+    private static final boolean SMART_DEPTH = false;
 
     private final Sinks.Many<IbLogRecord> logSubject =
         Sinks.many().unicast().onBackpressureBuffer();
@@ -38,10 +82,18 @@ public class IbClient implements AutoCloseable {
 
     private final IdGenerator idGenerator;
     private final RequestRepository requests;
+    private final OutboundScheduler outbound;
+    private final HistoricalPacer historicalPacer = new HistoricalPacer();
+    private final BarStore barStore;
+    private final SharedSubscriptions sharedSubscriptions = new SharedSubscriptions();
+    private final OrderRouter orderRouter = new OrderRouter();
+    // Guards order ID allocation together with queueing of the orders on the order lane
+    private final Object orderSubmission = new Object();
     private final IbClientOptions options;
 
     private IbReader reader;
     private Wrapper wrapper;
+    private DispatchingWrapper dispatcher;
     private EClientSocket socket;
     private CacheRepository cache;
     private ConnectionMonitor connectionMonitor;
@@ -53,18 +105,32 @@ public class IbClient implements AutoCloseable {
     public IbClient(IbClientOptions options) {
         this.options = options;
         idGenerator = new IdGenerator();
-        requests = new RequestRepository(this, idGenerator);
+        outbound = new OutboundScheduler(options.getMaxMessagesPerSecond());
+        requests = new RequestRepository(this, idGenerator, outbound);
+        barStore = options.getBarStoreDirectory() != null ? new BarStore(options.getBarStoreDirectory()) : null;
     }
 
     @Override
     public void close() {
         disconnect();
+        outbound.close();
     }
 
     public CacheRepository getCache() {
         return cache;
     }
 
+    /**
+     * Returns state of the queue of messages waiting to be sent to TWS.
+     *
+     * @return queue metrics
+     * @apiNote Thread safe.
+     * @see IbClientOptions#maxMessagesPerSecond(int)
+     */
+    public IbOutboundMetrics getOutboundMetrics() {
+        return outbound.getMetrics();
+    }
+
     /**
      * Generates new incremental request/order ID, if developer need to define it
      * explicitly.
@@ -102,21 +168,34 @@ public class IbClient implements AutoCloseable {
                 return;
             }
 
-            cache = new CacheRepository();
+            cache = new CacheRepository(options.getTickRingSize());
 
             connectionMonitor = new ConnectionMonitor(options.getConnectionDelay()) {
 
                 @Override
                 protected void connectRequest() {
-                    EJavaSignal signal = new EJavaSignal();
+                    EReaderSignal signal = Signals.create(options.getWaitStrategy());
+
+                    EWrapper socketWrapper = wrapper;
+                    if (options.getDispatchThreads() > 0) {
+                        dispatcher = new DispatchingWrapper(wrapper,
+                            options.getDispatchThreads(),
+                            options.getDispatchQueueSize(),
+                            IbClient.this::isOrderId,
+                            wrapper::onBatchEnd
+                        );
+                        dispatcher.start();
+                        socketWrapper = dispatcher;
+                    }
 
-                    socket = new EClientSocket(wrapper, signal);
+                    socket = new EClientSocket(socketWrapper, signal);
                     wrapper.setSocket(socket);
 
                     socket.setAsyncEConnect(false);
                     socket.eConnect(ip, port, connId);
 
-                    reader = new IbReader(socket, signal);
+                    // With dispatch threads, batches end when dispatch queues are drained
+                    reader = new IbReader(socket, signal, dispatcher == null ? wrapper::onBatchEnd : null);
                     reader.start();
                 }
 
@@ -128,12 +207,16 @@ public class IbClient implements AutoCloseable {
                     if (reader != null) {
                         reader.close();
                     }
+                    if (dispatcher != null) {
+                        dispatcher.close();
+                    }
                     if (!reconnect) {
                         cache.clear();
                     }
 
                     socket = null;
                     reader = null;
+                    dispatcher = null;
                 }
 
                 @Override
@@ -150,7 +233,7 @@ public class IbClient implements AutoCloseable {
                 }
             };
 
-            wrapper = new Wrapper(connectionMonitor, cache, requests, idGenerator, logSubject);
+            wrapper = new Wrapper(connectionMonitor, cache, requests, idGenerator, orderRouter, logSubject);
 
             connectionMonitor.start();
             connectionMonitor.connect();
@@ -242,6 +325,20 @@ public class IbClient implements AutoCloseable {
                 .subscribe();
     }
 
+    /**
+     * Subscription to statuses of a single order.
+     *
+     * @return Flux that emits the current status of the order, if there is one, and then its new statuses. Completes
+     *         after the order is filled or cancelled.
+     * @implNote Statuses are routed by order ID, so a subscriber receives only statuses of its order.
+     */
+    public Flux<IbOrderStatus> subscribeOnOrder(int orderId) {
+        return orderRouter.statuses(orderId, () -> {
+            IbOrder order = cache != null ? cache.getOrder(orderId) : null;
+            return order != null ? order.getLastStatus() : null;
+        });
+    }
+
     /**
      * Subscription to position changes for a single account.
      *
@@ -305,7 +402,7 @@ public class IbClient implements AutoCloseable {
     public void setMarketDataType(MarketDataType type) {
         Validators.shouldNotBeNull(type, "Type should be defined");
 
-        socket.reqMarketDataType(type.getValue());
+        outbound.submit(IbOutboundMetrics.Lane.MARKET_DATA, () -> socket.reqMarketDataType(type.getValue()));
     }
 
     /**
@@ -389,6 +486,8 @@ public class IbClient implements AutoCloseable {
      * @param contract IB contract
      * @param numRows  Order book max depth
      * @return Flux with order book levels
+     * @implNote Subscribers of the same contract and depth share a single TWS subscription. A late subscriber
+     *           receives the current rows of the book first, asks and then bids from the top level.
      * @see <a href=
      *      "https://interactivebrokers.github.io/tws-api/market_depth.html">
      *      TWS API: Market Depth (Level II)</a>
@@ -403,12 +502,93 @@ public class IbClient implements AutoCloseable {
         Validators.contractWithIdShouldExist(contract);
         Validators.intShouldBePositive(numRows, "Number of rows should be positive");
 
-        return requests.<IbMarketDepth>builder()
-                .type(RequestRepository.Type.EVENT_MARKET_DATA_LVL2)
-                .register(id -> socket.reqMktDepth(id, contract, numRows, false, null))
-                .unregister(id -> socket.cancelMktDepth(id, false))
-                .userData(contract)
-                .subscribe();
+        // Late subscribers start with the current rows of the book
+        return subscribeOnDepthContext(contract, numRows).switchMap(DepthContext::rows);
+    }
+
+    /**
+     * Shared market depth subscription. Emits its context once, the book and rows of the subscription are provided
+     * by the context.
+     */
+    private Flux<DepthContext> subscribeOnDepthContext(Contract contract, int numRows) {
+        SharedSubscriptions.Key key = SharedSubscriptions.Key.of(RequestRepository.Type.EVENT_MARKET_DATA_LVL2,
+            contract,
+            numRows + " " + SMART_DEPTH
+        );
+        return sharedSubscriptions.share(key, 1, () -> Flux.defer(() -> {
+            DepthContext context = new DepthContext(contract);
+
+            return requests.<DepthContext>builder()
+                    .type(RequestRepository.Type.EVENT_MARKET_DATA_LVL2)
+                    .register(id -> {
+                        cache.attachDepthContext(id, context);
+                        socket.reqMktDepth(id, contract, numRows, SMART_DEPTH, null);
+                    })
+                    .unregister(id -> socket.cancelMktDepth(id, SMART_DEPTH))
+                    .userData(contract)
+                    .subscribe()
+                    .startWith(context)
+                    .doFinally(signal -> cache.detachDepthContext(context));
+        }));
+    }
+
+    /**
+     * Subscription to consistent snapshots of contract order book, emitted at most once per interval.
+     *
+     * <p>Unlike {@link #subscribeOnMarketDepth}, intermediate row changes are not emitted: every snapshot contains
+     * all levels of the book at the moment it's taken. Slow subscriber receives only the latest snapshot.
+     *
+     * @param contract IB contract
+     * @param numRows  Order book max depth
+     * @param interval Min interval between snapshots
+     * @return Flux with order book snapshots
+     * @see #subscribeOnMarketDepth(Contract, int)
+     */
+    public Flux<IbOrderBook> subscribeOnOrderBook(Contract contract, int numRows, Duration interval) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.intShouldBePositive(numRows, "Number of rows should be positive");
+        Validators.shouldNotBeNull(interval, "Interval should be defined");
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval should be positive");
+        }
+
+        return subscribeOnDepthContext(contract, numRows)
+            .switchMap(context -> orderBookSnapshots(context, numRows, Flux.interval(interval)));
+    }
+
+    /**
+     * Subscription to consistent snapshots of contract order book, emitted once per batch of received messages
+     * which changed the book.
+     *
+     * @param contract IB contract
+     * @param numRows  Order book max depth
+     * @return Flux with order book snapshots
+     * @see #subscribeOnOrderBook(Contract, int, Duration)
+     */
+    public Flux<IbOrderBook> subscribeOnOrderBook(Contract contract, int numRows) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.intShouldBePositive(numRows, "Number of rows should be positive");
+
+        return subscribeOnDepthContext(contract, numRows)
+            .switchMap(context -> orderBookSnapshots(context, numRows, wrapper.getBatchEnds()));
+    }
+
+    /**
+     * Snapshots of the subscription's own book on every trigger after which the book has changed. Rows of the book
+     * are not built, the book version tells whether it has changed.
+     */
+    private Flux<IbOrderBook> orderBookSnapshots(DepthContext context, int numRows, Flux<?> triggers) {
+        AtomicLong lastVersion = new AtomicLong(-1);
+        return triggers
+            .onBackpressureLatest()
+            .takeUntilOther(context.onDetach())
+            .handle((trigger, sink) -> {
+                OrderBook book = context.getBook();
+                long version = book.getVersion();
+                if (version != lastVersion.getAndSet(version)) {
+                    sink.next(book.snapshot(context.getContract(), numRows));
+                }
+            });
     }
 
     /**
@@ -416,6 +596,12 @@ public class IbClient implements AutoCloseable {
      *
      * @param contract IB contract
      * @return Flux with contract ticks
+     * @implNote The same {@link IbTick} instance is emitted on every change and it is mutated by the reader
+     *           thread. Use {@link IbTick#snapshot()} or {@link #subscribeOnMarketDataUpdates} to consume data
+     *           on other threads.
+     *           <p>Subscribers of the same contract share a single TWS subscription, also with
+     *           {@link #subscribeOnMarketDataUpdates}. A late subscriber receives the current ticker state
+     *           immediately.
      * @see <a href="https://interactivebrokers.github.io/tws-api/top_data.html">
      *      TWS API: Market Depth (Level I)</a>
      * @see <a href=
@@ -428,11 +614,267 @@ public class IbClient implements AutoCloseable {
     public Flux<IbTick> subscribeOnMarketData(Contract contract) {
         Validators.contractWithIdShouldExist(contract);
 
-        return requests.<IbTick>builder()
-                .type(RequestRepository.Type.EVENT_MARKET_DATA)
-                .register(id -> socket.reqMktData(id, contract, "", false, false, null))
-                .unregister(id -> socket.cancelMktData(id))
-                .subscribe();
+        SharedSubscriptions.Key key =
+            SharedSubscriptions.Key.of(RequestRepository.Type.EVENT_MARKET_DATA, contract, "");
+
+        // Late subscribers receive the ticker state immediately
+        return sharedSubscriptions.share(key, 1, () -> subscribeOnMarketDataLine(contract)
+                .switchMap(tickerId -> requests.<IbTick>builder()
+                        .type(RequestRepository.Type.EVENT_MARKET_DATA)
+                        .id(tickerId)
+                        .register(() -> {
+                        }) // ticks of the line
+                        .subscribe()));
+    }
+
+    /**
+     * Conflated subscription to contract ticks (Market Depth Level I).
+     *
+     * <p>Slow subscriber doesn't accumulate a queue of stale ticks: only the latest state of the ticker is kept,
+     * and it is delivered as a consistent {@link IbTick#snapshot()} when subscriber requests the next element.
+     *
+     * @param contract   IB contract
+     * @param conflation conflation mode. Also counts received, delivered and conflated updates of the stream
+     * @return Flux with snapshots of contract ticks
+     * @see #subscribeOnMarketData(Contract)
+     */
+    public Flux<IbTick> subscribeOnMarketData(Contract contract, Conflation conflation) {
+        Validators.shouldNotBeNull(conflation, "Conflation should be defined");
+
+        return conflation.apply(subscribeOnMarketData(contract), IbTick::snapshot);
+    }
+
+    /**
+     * Subscription to changes of contract ticks (Market Depth Level I).
+     *
+     * <p>Unlike {@link #subscribeOnMarketData}, that emits the same mutable {@link IbTick} instance on every
+     * change, this stream emits small immutable {@link IbTickUpdate} deltas, that are safe to consume on any
+     * thread. Consistent state of all fields can be requested on demand with
+     * {@link CacheRepository#getTickSnapshot} by {@link IbTickUpdate#getTickerId()}.
+     *
+     * @param contract IB contract
+     * @return Flux with field updates
+     * @implNote Subscribers of the same contract share a single TWS subscription, also with
+     *           {@link #subscribeOnMarketData}.
+     * @see <a href="https://interactivebrokers.github.io/tws-api/top_data.html">
+     *      TWS API: Market Depth (Level I)</a>
+     * @see #subscribeOnMarketData
+     */
+    public Flux<IbTickUpdate> subscribeOnMarketDataUpdates(Contract contract) {
+        Validators.contractWithIdShouldExist(contract);
+
+        SharedSubscriptions.Key key =
+            SharedSubscriptions.Key.of(RequestRepository.Type.EVENT_MARKET_DATA_UPDATE, contract, "");
+
+        return sharedSubscriptions.share(key, 0, () -> subscribeOnMarketDataLine(contract)
+                .switchMap(tickerId -> requests.<IbTickUpdate>builder()
+                        .type(RequestRepository.Type.EVENT_MARKET_DATA_UPDATE)
+                        .id(tickerId)
+                        .register(() -> {
+                        }) // updates of the line
+                        .subscribe()));
+    }
+
+    /**
+     * Shared market data line of the contract, used by both {@link #subscribeOnMarketData} and
+     * {@link #subscribeOnMarketDataUpdates}, so a contract watched through both takes a single TWS line.
+     *
+     * @return Flux which emits the ticker ID of the line once. Fails on errors of the line.
+     */
+    private Flux<Integer> subscribeOnMarketDataLine(Contract contract) {
+        SharedSubscriptions.Key key =
+            SharedSubscriptions.Key.of(RequestRepository.Type.EVENT_MARKET_DATA_LINE, contract, "");
+
+        return sharedSubscriptions.share(key, 1, () -> Flux.defer(() -> {
+            int tickerId = idGenerator.nextId();
+            // The line is registered first, so errors of the ticker ID are routed to it
+            return requests.<Integer>builder()
+                    .type(RequestRepository.Type.EVENT_MARKET_DATA_LINE)
+                    .id(tickerId)
+                    .register(id -> socket.reqMktData(id, contract, "", false, false, null))
+                    .unregister(id -> socket.cancelMktData(id))
+                    .subscribe()
+                    .mergeWith(Mono.just(tickerId));
+        }));
+    }
+
+    /**
+     * Subscription to bars aggregated locally from live trades of the contract.
+     *
+     * <p>Unlike {@link #subscribeOnHistoricalData}, bars of any duration or volume are built on the client from the
+     * market data stream, without a historical data request per bar stream.
+     *
+     * @param contract    IB contract
+     * @param aggregation Bar duration or volume
+     * @return Flux with bars. Never completes. Unfinished bars are emitted only with
+     *         {@link BarAggregation#partial()}.
+     * @implNote Market data of the contract is shared with {@link #subscribeOnMarketDataUpdates}.
+     * @see BarBuilder
+     */
+    public Flux<IbLiveBar> subscribeOnLiveBars(Contract contract, BarAggregation aggregation) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.shouldNotBeNull(aggregation, "Aggregation should be defined");
+
+        return Flux.defer(() -> {
+            BarBuilder builder = new BarBuilder(contract.conid(), aggregation);
+            return liveBars(aggregation, builder, subscribeOnMarketDataUpdates(contract)
+                    .handle((update, sink) -> builder.onUpdate(update, sink::next)));
+        });
+    }
+
+    /**
+     * Subscription to bars aggregated locally from tick-by-tick trades of the contract.
+     *
+     * <p>Unlike the market data stream, tick-by-tick data has every trade, so volume and count of the bars are
+     * exact.
+     *
+     * @param contract    IB contract
+     * @param aggregation Bar duration or volume
+     * @param kind        {@link IbTickByTick.Kind#LAST} or {@link IbTickByTick.Kind#ALL_LAST}
+     * @return Flux with bars. Never completes. Unfinished bars are emitted only with
+     *         {@link BarAggregation#partial()}.
+     * @implNote Tick-by-tick data of the contract is shared with {@link #subscribeOnTickByTick}. Its times have
+     *           second resolution, so do the times of the bars, and the duration should be a multiple of 1 second.
+     *           A trade received after its bar has been completed is added to the next bar.
+     */
+    public Flux<IbLiveBar> subscribeOnLiveBars(Contract contract, BarAggregation aggregation, IbTickByTick.Kind kind) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.shouldNotBeNull(aggregation, "Aggregation should be defined");
+        Validators.shouldNotBeNull(kind, "Kind should be defined");
+        if (!kind.isTrade()) {
+            throw new IllegalArgumentException("Bars can be built only from trades");
+        }
+        if (aggregation.isTimeBased() && aggregation.getIntervalNanos() % TimeUnit.SECONDS.toNanos(1) != 0) {
+            throw new IllegalArgumentException("Tick-by-tick times have second resolution, "
+                    + "bars can be built only for a multiple of 1 second");
+        }
+
+        return Flux.defer(() -> {
+            BarBuilder builder = new BarBuilder(contract.conid(), aggregation);
+            return liveBars(aggregation, builder, subscribeOnTickByTick(contract, kind)
+                    .handle((tick, sink) -> builder.onTrade(TimeUnit.SECONDS.toNanos(tick.getTime()),
+                            tick.getPrice(),
+                            tick.getSize(),
+                            sink::next)));
+        });
+    }
+
+    private static Flux<IbLiveBar> liveBars(BarAggregation aggregation, BarBuilder builder, Flux<IbLiveBar> trades) {
+        if (!aggregation.isTimeBased()) {
+            return trades;
+        }
+
+        // Completes a time bar, when there are no trades after its interval. Ticks fall on interval boundaries, so
+        // a bar is completed right at its end rather than up to an interval later
+        return Flux.defer(() -> {
+            long period = Math.max(aggregation.getIntervalNanos(), MIN_BAR_CHECK_NANOS);
+            long delay = period - Math.floorMod(EpochClock.nanos(), period);
+            Flux<IbLiveBar> timer = Flux.interval(Duration.ofNanos(delay), Duration.ofNanos(period))
+                    .handle((i, sink) -> builder.onTime(EpochClock.nanos(), sink::next));
+            return Flux.merge(trades, timer);
+        });
+    }
+
+    /**
+     * Subscription to 5 seconds bars.
+     *
+     * @param contract     IB contract
+     * @param type         The type of data: {@link Type#TRADES}, {@link Type#MIDPOINT}, {@link Type#BID} or
+     *                     {@link Type#ASK}
+     * @param tradingHours Whether ({@link TradingHours#Within}) or not ({@link TradingHours#Outside}) to retrieve
+     *                     data generated only within Regular Trading Hours
+     * @return Flux with completed bars. Never completes.
+     * @implNote Subscribers of the same contract and parameters share a single TWS subscription.
+     * @see <a href="https://interactivebrokers.github.io/tws-api/realtime_bars.html">
+     *      TWS API: Real Time Bars</a>
+     */
+    public Flux<IbLiveBar> subscribeOnRealtimeBars(Contract contract, Type type, TradingHours tradingHours) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.shouldNotBeNull(type, "Type should be defined");
+        Validators.shouldNotBeNull(tradingHours, "Trading hours should be defined");
+
+        SharedSubscriptions.Key key = SharedSubscriptions.Key.of(RequestRepository.Type.EVENT_REALTIME_BARS,
+                contract,
+                type + " " + tradingHours);
+
+        return sharedSubscriptions.share(key, 0, () -> requests.<IbLiveBar>builder()
+                .type(RequestRepository.Type.EVENT_REALTIME_BARS)
+                .register(id -> socket.reqRealTimeBars(id,
+                        contract,
+                        REALTIME_BAR_SECONDS,
+                        type.toString(),
+                        tradingHours == TradingHours.Within,
+                        null))
+                .unregister(id -> socket.cancelRealTimeBars(id))
+                .userData(contract.conid())
+                .subscribe());
+    }
+
+    /**
+     * Subscription to bars of a larger size, rolled up from 5 seconds bars.
+     *
+     * @param aggregation Bar duration, a multiple of 5 seconds
+     * @return Flux with bars. Never completes. A bar is emitted as soon as its last 5 seconds bar is received.
+     * @see #subscribeOnRealtimeBars(Contract, Type, TradingHours)
+     */
+    public Flux<IbLiveBar> subscribeOnRealtimeBars(
+            Contract contract,
+            Type type,
+            TradingHours tradingHours,
+            BarAggregation aggregation) {
+        Validators.shouldNotBeNull(aggregation, "Aggregation should be defined");
+        if (!aggregation.isTimeBased()
+                || aggregation.getIntervalNanos() % Duration.ofSeconds(REALTIME_BAR_SECONDS).toNanos() != 0) {
+            throw new IllegalArgumentException("Realtime bars can be rolled up only to a multiple of 5 seconds");
+        }
+
+        Flux<IbLiveBar> bars = subscribeOnRealtimeBars(contract, type, tradingHours);
+        return Flux.defer(() -> {
+            BarBuilder builder = new BarBuilder(contract.conid(), aggregation);
+            return bars.handle((bar, sink) -> builder.onBar(bar, sink::next));
+        });
+    }
+
+    /**
+     * Subscription to tick-by-tick trades or quotes.
+     *
+     * <p>The latest events are also kept in a ring buffer of the contract, see
+     * {@link CacheRepository#getTickRing(Contract, IbTickByTick.Kind)}.
+     *
+     * @param contract IB contract
+     * @param kind     Trades ({@link IbTickByTick.Kind#LAST}, {@link IbTickByTick.Kind#ALL_LAST}) or quotes
+     *                 ({@link IbTickByTick.Kind#BID_ASK}, {@link IbTickByTick.Kind#MIDPOINT})
+     * @return Flux with events. Never completes.
+     * @implNote Subscribers of the same contract and kind share a single TWS subscription.
+     * @see <a href="https://interactivebrokers.github.io/tws-api/tick_data.html">
+     *      TWS API: Tick By Tick Data</a>
+     */
+    public Flux<IbTickByTick> subscribeOnTickByTick(Contract contract, IbTickByTick.Kind kind) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.shouldNotBeNull(kind, "Kind should be defined");
+
+        SharedSubscriptions.Key key =
+            SharedSubscriptions.Key.of(RequestRepository.Type.EVENT_TICK_BY_TICK, contract, kind.name());
+
+        return sharedSubscriptions.share(key, 0, () -> Flux.defer(() -> {
+            AtomicReference<TickRing> ring = new AtomicReference<>();
+            AtomicInteger reqId = new AtomicInteger();
+
+            return requests.<IbTickByTick>builder()
+                    .type(RequestRepository.Type.EVENT_TICK_BY_TICK)
+                    .register(id -> {
+                        reqId.set(id);
+                        ring.set(cache.attachTickRing(id, contract.conid(), kind));
+                        socket.reqTickByTickData(id, contract, kind.toString(), 0, false);
+                    })
+                    .unregister(id -> socket.cancelTickByTickData(id))
+                    .subscribe()
+                    .doFinally(signal -> {
+                        if (ring.get() != null) {
+                            cache.detachTickRing(reqId.get(), ring.get());
+                        }
+                    });
+        }));
     }
 
     /**
@@ -576,7 +1018,9 @@ public class IbClient implements AutoCloseable {
      *           {@link com.ib.client.Order#orderId} is not assigned or zero,
      *           library generates ID by itself. In some cases Developer need to
      *           define ID explicitly, then he is able to
-     *           generate new value with {@link #nextOrderId}
+     *           generate new value with {@link #nextOrderId}.
+     *           A generated ID is assigned on subscription, and is queued on the order lane before any order which
+     *           gets a later ID, so TWS receives generated IDs in increasing order.
      * @see <a href=
      *      "https://interactivebrokers.github.io/tws-api/order_submission.html">
      *      TWS API: Placing Orders</a>
@@ -589,17 +1033,33 @@ public class IbClient implements AutoCloseable {
         Validators.shouldNotBeNull(contract, "Contract should be defined");
         Validators.shouldNotBeNull(order, "Order should be defined");
 
-        if (order.orderId() == 0) {
-            log.info("Adding external id to order");
-            order.orderId(idGenerator.nextId());
-        }
+        return submitOrders(() -> {
+            if (order.orderId() == 0) {
+                log.info("Adding external id to order");
+                order.orderId(idGenerator.nextId());
+            }
 
-        return requests.<IbOrder>builder()
-                .id(order.orderId())
-                .type(RequestRepository.Type.REQ_ORDER_PLACE)
-                .register(id -> socket.placeOrder(id, contract, order))
-                .subscribe()
-                .single();
+            return requests.<IbOrder>builder()
+                    .id(order.orderId())
+                    .type(RequestRepository.Type.REQ_ORDER_PLACE)
+                    .register(id -> socket.placeOrder(id, contract, order))
+                    .subscribe()
+                    .single();
+        });
+    }
+
+    /**
+     * Subscribes to the placement, which allocates order IDs and queues its orders synchronously, under one lock.
+     * Orders are sent from the order lane in the queueing order, so no order with a later ID overtakes it.
+     */
+    private <T> Mono<T> submitOrders(Supplier<Mono<T>> placement) {
+        return Mono.create(sink -> {
+            Disposable subscription;
+            synchronized (orderSubmission) {
+                subscription = placement.get().subscribe(sink::success, sink::error, sink::success);
+            }
+            sink.onDispose(subscription);
+        });
     }
 
     /**
@@ -623,18 +1083,18 @@ public class IbClient implements AutoCloseable {
 
         // Checking does order doesn't already filled or canceled
         Mono<Void> preconditions = Mono.create(emitter -> {
-            IbOrder order = cache.getOrders().getOrDefault(orderId, null);
+            IbOrder order = cache.getOrder(orderId);
             if (order == null) {
                 emitter.success();
                 return;
             }
 
-            IbOrderStatus lastStatus = order.getLastStatus();
-            if (lastStatus.isFilled()) {
+            OrderStatus status = order.getCurrentStatus();
+            if (status == OrderStatus.Filled) {
                 emitter.error(new IbExceptions.OrderAlreadyFilledError(orderId));
                 return;
             }
-            if (lastStatus.isCanceled()) {
+            if (status == OrderStatus.Cancelled || status == OrderStatus.ApiCancelled) {
                 log.warn("Order {} already has been canceled", orderId);
                 emitter.success();
                 return;
@@ -654,12 +1114,111 @@ public class IbClient implements AutoCloseable {
     }
 
     /**
-     * Cancels all opened orders.
+     * Places a batch of orders, waiting for each of them at most {@link #DEFAULT_PLACE_ORDER_TIMEOUT}.
+     *
+     * @see #placeOrders(List, Duration)
+     */
+    public Mono<IbOrderBatchResult<IbOrder>> placeOrders(List<OrderRequest> orders) {
+        return placeOrders(orders, DEFAULT_PLACE_ORDER_TIMEOUT);
+    }
+
+    /**
+     * Places a batch of orders.
+     *
+     * @param orders  contracts and orders to place
+     * @param timeout how long to wait for the result of each order, including pacing on the order lane
+     * @return Mono with outcomes of the orders in the order of the batch. Doesn't fail if some orders are rejected
+     *         or time out, their errors are reported in the result. An order which timed out may still be working
+     *         in TWS.
+     * @implNote Orders without {@link com.ib.client.Order#orderId} get IDs from a single pre-allocated block. The
+     *           block is allocated and all orders are queued under one lock, so they are sent to TWS back to back
+     *           on the order lane, before any order with a later ID, and are paced together with other outbound
+     *           messages.
+     * @see #placeOrder
+     */
+    public Mono<IbOrderBatchResult<IbOrder>> placeOrders(List<OrderRequest> orders, Duration timeout) {
+        Validators.shouldNotBeNull(orders, "Orders should be defined");
+        for (OrderRequest request : orders) {
+            Validators.shouldNotBeNull(request, "Order request should be defined");
+        }
+        Validators.shouldNotBeNull(timeout, "Timeout should be defined");
+
+        return submitOrders(() -> {
+            int withoutId = 0;
+            for (OrderRequest request : orders) {
+                if (request.getOrder().orderId() == 0) {
+                    withoutId++;
+                }
+            }
+            if (withoutId > 0) {
+                int nextId = idGenerator.nextIds(withoutId);
+                for (OrderRequest request : orders) {
+                    if (request.getOrder().orderId() == 0) {
+                        request.getOrder().orderId(nextId++);
+                    }
+                }
+            }
+
+            return Flux.fromIterable(orders)
+                    .flatMapSequential(request -> {
+                        int orderId = request.getOrder().orderId();
+                        return placeOrder(request.getContract(), request.getOrder())
+                                .timeout(timeout)
+                                .map(order -> IbOrderBatchResult.Outcome.success(orderId, order))
+                                .onErrorResume(e -> Mono.just(IbOrderBatchResult.Outcome.failure(orderId, e)));
+                    }, Math.max(1, orders.size()))
+                    .collectList()
+                    .map(IbOrderBatchResult::new);
+        });
+    }
+
+    /**
+     * Cancels a batch of orders.
+     *
+     * @param orderIds IDs of orders to cancel
+     * @return Mono with outcomes of the cancellations in the order of the batch. Doesn't fail if some orders can't
+     *         be cancelled, their errors are reported in the result.
+     * @implNote All cancellations are submitted at once, so they are sent to TWS back to back on the order lane.
+     * @see #cancelOrder
+     */
+    public Mono<IbOrderBatchResult<Void>> cancelOrders(Collection<Integer> orderIds) {
+        Validators.shouldNotBeNull(orderIds, "Order IDs should be defined");
+
+        return Flux.fromIterable(orderIds)
+                .flatMapSequential(orderId -> cancelOrder(orderId)
+                        .then(Mono.fromSupplier(() -> IbOrderBatchResult.Outcome.<Void>success(orderId, null)))
+                        .onErrorResume(e -> Mono.just(IbOrderBatchResult.Outcome.failure(orderId, e))),
+                    Math.max(1, orderIds.size())
+                )
+                .collectList()
+                .map(IbOrderBatchResult::new);
+    }
+
+    private boolean isOrderId(int id) {
+        return requests.hasRequest(RequestRepository.Type.REQ_ORDER_PLACE, id) ||
+            requests.hasRequest(RequestRepository.Type.REQ_ORDER_CANCEL, id) ||
+            cache.getOrder(id) != null;
+    }
+
+    /**
+     * Cancels all opened orders, waiting for them at most {@link #DEFAULT_CANCEL_ALL_TIMEOUT}.
      *
      * @return Mono
-     * @implNote To provide result, library uses a bit tangled logic to wait until
-     *           all opened orders will be canceled.
-     *           Some corner case are possible.
+     * @see #cancelAll(Duration)
+     */
+    public Mono<Void> cancelAll() {
+        return cancelAll(DEFAULT_CANCEL_ALL_TIMEOUT);
+    }
+
+    /**
+     * Cancels all opened orders.
+     *
+     * @param timeout how long to wait until all orders are done
+     * @return Mono which completes as soon as no order is working anymore, or fails with
+     *         {@link IbExceptions.OrdersNotCancelledError} listing orders which are still working at the deadline
+     * @implNote Orders to wait for are the working orders of the cache, their IDs are kept in a primitive set. An
+     *           order is done on any final status, so an order which is filled before the cancel doesn't block
+     *           completion. Statuses are observed from before the cache is read, so no status is missed.
      * @see <a href=
      *      "https://interactivebrokers.github.io/tws-api/cancel_order.html">
      *      TWS API: Cancelling Orders</a>
@@ -667,20 +1226,52 @@ public class IbClient implements AutoCloseable {
      *      "https://interactivebrokers.github.io/tws-api/classIBApi_1_1EClient.html#a66ad7a4820c5be21ebde521d59a50053">
      *      TWS API: reqGlobalCancel</a>
      */
-    public Mono<Void> cancelAll() {
-
-        Flux<IbOrder> openedOrder = reqOpenOrders().filter(order -> !order.getLastStatus().isCanceled() &&
-                !order.getLastStatus().isFilled() && !order.getLastStatus().isInactive());
+    public Mono<Void> cancelAll(Duration timeout) {
+        Validators.shouldNotBeNull(timeout, "Timeout should be defined");
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout should be positive");
+        }
 
-        Flux<IbOrderStatus> cancelAllAndWait = subscribeOnOrderNewStatus()
-                .doOnSubscribe(unused -> socket.reqGlobalCancel())
-                .filter(IbOrderStatus::isCanceled)
-                .share();
+        return Mono.create(sink -> {
+            IntSet outstanding = new IntSet();
+
+            Disposable statuses = orderRouter.statuses()
+                    .filter(status -> !status.getStatus().isActive())
+                    .subscribe(status -> {
+                        synchronized (outstanding) {
+                            if (outstanding.remove(status.getOrderId()) && outstanding.isEmpty()) {
+                                sink.success();
+                            }
+                        }
+                    });
+
+            Disposable deadline = Mono.delay(timeout).subscribe(unused -> {
+                int[] stragglers;
+                synchronized (outstanding) {
+                    stragglers = outstanding.toArray();
+                }
+                log.warn("Orders {} are not cancelled in {}", Arrays.toString(stragglers), timeout);
+                sink.error(new IbExceptions.OrdersNotCancelledError(stragglers));
+            });
+
+            sink.onDispose(() -> {
+                statuses.dispose();
+                deadline.dispose();
+            });
+
+            Collection<IbOrder> working = cache.getOrderStore().getWorking();
+            synchronized (outstanding) {
+                for (IbOrder order : working) {
+                    outstanding.add(order.getOrderId());
+                }
+                log.info("Canceling {} working orders", outstanding.size());
+                if (outstanding.isEmpty()) {
+                    sink.success();
+                }
+            }
 
-        return openedOrder.buffer()
-                .flatMap(Flux::fromIterable)
-                .flatMap(order -> cancelAllAndWait.filter(status -> status.getOrderId() == order.getOrderId()).take(1))
-                .then();
+            outbound.submit(IbOutboundMetrics.Lane.ORDER, () -> socket.reqGlobalCancel());
+        });
     }
 
     /**
@@ -715,7 +1306,7 @@ public class IbClient implements AutoCloseable {
      *      TWS API: reqAutoOpenOrders</a>
      */
     public void reqAutoOpenOrders(boolean autoBind) {
-        socket.reqAutoOpenOrders(autoBind);
+        outbound.submit(IbOutboundMetrics.Lane.ORDER, () -> socket.reqAutoOpenOrders(autoBind));
     }
 
     // trigger executions to arrive via subscribeonexecutionrpeort
@@ -880,6 +1471,74 @@ public class IbClient implements AutoCloseable {
                 "TRADES");
     }
 
+    /**
+     * Streams historical midpoints for a time range of any length.
+     *
+     * <p>Range is fetched page by page, max {@value MAX_ALLOWED_TICKS_COUNT} ticks per request. At most one page
+     * is fetched ahead of downstream, so a slow subscriber doesn't accumulate pages. TWS can't split a second
+     * between pages, so if a second has more ticks than a page, the stream fails with
+     * {@link IbExceptions.TicksTruncatedError} after the ticks of that second it has got.
+     *
+     * @param contract IB contract
+     * @param from     Range start, inclusive
+     * @param to       Range end, exclusive
+     * @return Flux with the ticks in time order
+     * @see #reqHistoricalMidpoints
+     */
+    public Flux<HistoricalTick> streamHistoricalMidpoints(Contract contract, Instant from, Instant to) {
+        return paginateHistoricalTicks(contract,
+                from,
+                to,
+                RequestRepository.Type.REQ_HISTORICAL_MIDPOINT_TICK,
+                "MIDPOINT",
+                HistoricalTick::time);
+    }
+
+    /**
+     * Streams historical bid/ask ticks for a time range of any length.
+     *
+     * @param contract IB contract
+     * @param from     Range start, inclusive
+     * @param to       Range end, exclusive
+     * @return Flux with the ticks in time order
+     * @see #streamHistoricalMidpoints
+     * @see #reqHistoricalBidAsks
+     */
+    public Flux<HistoricalTickBidAsk> streamHistoricalBidAsks(Contract contract, Instant from, Instant to) {
+        return paginateHistoricalTicks(contract,
+                from,
+                to,
+                RequestRepository.Type.REQ_HISTORICAL_BID_ASK_TICK,
+                "BID_ASK",
+                HistoricalTickBidAsk::time);
+    }
+
+    /**
+     * Streams historical trades for a time range of any length.
+     *
+     * @param contract IB contract
+     * @param from     Range start, inclusive
+     * @param to       Range end, exclusive
+     * @return Flux with the ticks in time order
+     * @apiNote Forex contracts are forbidden, see {@link #reqHistoricalTrades}.
+     * @see #streamHistoricalMidpoints
+     * @see #reqHistoricalTrades
+     */
+    public Flux<HistoricalTickLast> streamHistoricalTrades(Contract contract, Instant from, Instant to) {
+        Validators.shouldNotBeNull(contract, "Contract should be defined");
+        if (contract.secType() == Types.SecType.CASH) {
+            throw new IllegalArgumentException(
+                    "IB doesn't return historical trades for Forex contracts");
+        }
+
+        return paginateHistoricalTicks(contract,
+                from,
+                to,
+                RequestRepository.Type.REQ_HISTORICAL_TRADE,
+                "TRADES",
+                HistoricalTickLast::time);
+    }
+
     /**
      * Request for historical bars (aka candles).
      *
@@ -904,6 +1563,9 @@ public class IbClient implements AutoCloseable {
      * @see <a href=
      *      "https://interactivebrokers.github.io/tws-api/classIBApi_1_1EClient.html#a5eac5b7908b62c224985cf8577a8350c">
      *      TWS API: reqHistoricalData</a>
+     * @implNote With {@link IbClientOptions#barStoreDirectory} bars are answered from the local store, and only
+     *           missing ranges are requested from TWS. The duration is then counted in calendar units back from
+     *           the end, not in trading days as TWS does.
      * @see #subscribeOnHistoricalData
      */
     public Flux<IbBar> reqHistoricalData(
@@ -914,6 +1576,63 @@ public class IbClient implements AutoCloseable {
             BarSize size,
             Type type,
             TradingHours tradingHours) {
+        if (barStore == null || contract.conid() <= 0) {
+            return fetchHistoricalData(contract, endDateTime, duration, durationUnit, size, type, tradingHours);
+        }
+
+        BarStore.Key key = new BarStore.Key(contract.conid(), size, type, tradingHours);
+        return Flux.defer(() -> {
+            LocalDateTime to = endDateTime != null ? endDateTime : LocalDateTime.now();
+            LocalDateTime from = switch (durationUnit) {
+                case Second -> to.minusSeconds(duration);
+                case Day -> to.minusDays(duration);
+                case Week -> to.minusWeeks(duration);
+                case Month -> to.minusMonths(duration);
+                case Year -> to.minusYears(duration);
+            };
+            // The last bar of a range reaching now is not finished yet, so it isn't stored
+            List<IbBar> unfinished = new ArrayList<>(1);
+
+            return Flux.fromIterable(barStore.gaps(key, from, to))
+                    .concatMap(gap -> Flux.fromIterable(BackfillPlanner.plan(gap.getFrom(), gap.getTo(), size))
+                            .concatMap(chunk -> fetchHistoricalData(contract,
+                                            chunk.getEnd(),
+                                            chunk.getDuration(),
+                                            chunk.getDurationUnit(),
+                                            size,
+                                            type,
+                                            tradingHours)
+                                    .onErrorResume(IbExceptions.NoDataError.class, e -> Flux.empty()))
+                            .collectList()
+                            .doOnNext(bars -> {
+                                LocalDateTime fetchedUntil = gap.getTo();
+                                if (!bars.isEmpty() && !gap.getTo().isBefore(LocalDateTime.now())) {
+                                    IbBar last = bars.get(bars.size() - 1);
+                                    fetchedUntil = last.getTime();
+                                    if (!fetchedUntil.isBefore(from)) {
+                                        unfinished.add(last);
+                                    }
+                                }
+                                log.debug("Storing {} bars of {} within [{}, {})",
+                                        bars.size(),
+                                        contract.description(),
+                                        gap.getFrom(),
+                                        fetchedUntil);
+                                barStore.write(key, gap.getFrom(), fetchedUntil, bars);
+                            }))
+                    .thenMany(Flux.defer(() -> Flux.fromIterable(barStore.read(key, from, to))))
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(unfinished)));
+        });
+    }
+
+    private Flux<IbBar> fetchHistoricalData(
+            Contract contract,
+            LocalDateTime endDateTime,
+            int duration,
+            DurationUnit durationUnit,
+            BarSize size,
+            Type type,
+            TradingHours tradingHours) {
 
         log.debug(
                 "Requesting bars: contract={}, endDateTime={}, duration={} {}, size={}, type={}, hours={}",
@@ -925,19 +1644,160 @@ public class IbClient implements AutoCloseable {
                 type,
                 tradingHours);
 
-        return requests.<IbBar>builder()
-                .type(RequestRepository.Type.REQ_HISTORICAL_DATA)
-                .register(id -> socket.reqHistoricalData(id,
-                        contract,
-                        endDateTime != null ? endDateTime.format(dateTimeFormatter) : null,
-                        String.format("%d %s", duration, durationUnit.toString()),
-                        size.toString(),
-                        type.toString(),
-                        tradingHours == TradingHours.Within ? 1 : 0,
-                        1,
-                        false,
-                        null))
-                .subscribe();
+        String endDateTimeStr = endDateTime != null ? endDateTime.format(dateTimeFormatter) : null;
+        String durationStr = String.format("%d %s", duration, durationUnit.toString());
+        String requestKey = String.join(" ",
+                historicalContractKey(contract, type.toString()),
+                String.valueOf(endDateTimeStr),
+                durationStr,
+                size.toString(),
+                tradingHours.toString());
+
+        return historicalPacer.submit(historicalContractKey(contract, type.toString()),
+                requestKey,
+                () -> requests.<IbBar>builder()
+                        .type(RequestRepository.Type.REQ_HISTORICAL_DATA)
+                        .register(id -> socket.reqHistoricalData(id,
+                                contract,
+                                endDateTimeStr,
+                                durationStr,
+                                size.toString(),
+                                type.toString(),
+                                tradingHours == TradingHours.Within ? 1 : 0,
+                                1,
+                                false,
+                                null))
+                        .subscribe());
+    }
+
+    /**
+     * Request for historical bars, collected into a {@link BarSeries}.
+     *
+     * <p>Bars are appended to the series right as they are received, without an {@link IbBar} per bar, which
+     * suits long series of small bars.
+     *
+     * @return Mono with the series, empty series if there are no bars
+     * @see #reqHistoricalData
+     */
+    public Mono<BarSeries> reqHistoricalSeries(
+            Contract contract,
+            LocalDateTime endDateTime,
+            int duration,
+            DurationUnit durationUnit,
+            BarSize size,
+            Type type,
+            TradingHours tradingHours) {
+        if (barStore != null && contract.conid() > 0) {
+            return reqHistoricalData(contract, endDateTime, duration, durationUnit, size, type, tradingHours)
+                    .collect(BarSeries::new, BarSeries::add);
+        }
+
+        String endDateTimeStr = endDateTime != null ? endDateTime.format(dateTimeFormatter) : null;
+        String durationStr = String.format("%d %s", duration, durationUnit.toString());
+        String requestKey = String.join(" ",
+                historicalContractKey(contract, type.toString()),
+                String.valueOf(endDateTimeStr),
+                durationStr,
+                size.toString(),
+                tradingHours.toString(),
+                "series");
+
+        return historicalPacer.submit(historicalContractKey(contract, type.toString()),
+                        requestKey,
+                        () -> requests.<Bar>builder()
+                                .type(RequestRepository.Type.REQ_HISTORICAL_SERIES)
+                                .register(id -> socket.reqHistoricalData(id,
+                                        contract,
+                                        endDateTimeStr,
+                                        durationStr,
+                                        size.toString(),
+                                        type.toString(),
+                                        tradingHours == TradingHours.Within ? 1 : 0,
+                                        1,
+                                        false,
+                                        null))
+                                .subscribe())
+                .collect(BarSeries::new, BarSeries::add)
+                .onErrorResume(IbExceptions.NoDataError.class, e -> Mono.just(new BarSeries()));
+    }
+
+    /**
+     * Backfills historical bars of the contract for a time range of any length.
+     *
+     * <p>Range is split into chunks of the max duration TWS serves for the bar size. Chunks are requested
+     * concurrently within historical data pacing limits, and their bars are emitted in time order, without
+     * duplicates at chunk boundaries. Chunks without data (e.g. weekends) are skipped.
+     *
+     * @param contract IB contract
+     * @param params   Backfill parameters
+     * @return Flux with the bars of the range in time order
+     * @see BackfillParams#progress(BackfillProgress)
+     * @see #reqHistoricalData
+     */
+    public Flux<IbBar> backfill(Contract contract, BackfillParams params) {
+        Validators.contractWithIdShouldExist(contract);
+        Validators.shouldNotBeNull(params, "Parameters should be defined");
+        Validators.shouldNotBeNull(params.getFrom(), "Range should be defined");
+
+        BackfillProgress progress = params.getProgress() != null ? params.getProgress() : new BackfillProgress();
+
+        return Flux.defer(() -> {
+            LocalDateTime completedUntil = progress.getCompletedUntil(contract.conid());
+            List<BackfillPlanner.Chunk> chunks =
+                    BackfillPlanner.plan(params.getFrom(), params.getTo(), params.getBarSize());
+            chunks.removeIf(chunk -> completedUntil != null && !chunk.getEnd().isAfter(completedUntil));
+            progress.addChunks(chunks.size());
+
+            LocalDateTime from = completedUntil != null && completedUntil.isAfter(params.getFrom()) ?
+                    completedUntil : params.getFrom();
+            AtomicReference<LocalDateTime> lastTime = new AtomicReference<>(from.minusNanos(1));
+
+            return Flux.fromIterable(chunks)
+                    .flatMapSequential(chunk -> reqHistoricalData(contract,
+                                    chunk.getEnd(),
+                                    chunk.getDuration(),
+                                    chunk.getDurationUnit(),
+                                    params.getBarSize(),
+                                    params.getType(),
+                                    params.getTradingHours())
+                                    .onErrorResume(IbExceptions.NoDataError.class, e -> Flux.empty())
+                                    .collectList()
+                                    .map(bars -> Tuples.of(chunk, bars)),
+                            params.getConcurrency())
+                    .concatMap(result -> {
+                        BackfillPlanner.Chunk chunk = result.getT1();
+
+                        // Chunks overlap, when a request duration is rounded up to days
+                        List<IbBar> bars = new ArrayList<>(result.getT2().size());
+                        for (IbBar bar : result.getT2()) {
+                            if (bar.getTime().isAfter(lastTime.get()) && bar.getTime().isBefore(params.getTo())) {
+                                bars.add(bar);
+                                lastTime.set(bar.getTime());
+                            }
+                        }
+
+                        return Flux.fromIterable(bars).concatWith(Mono.fromRunnable(() ->
+                                progress.completeChunk(contract.conid(), chunk.getEnd(), bars.size())));
+                    });
+        });
+    }
+
+    /**
+     * Backfills historical bars of several contracts.
+     *
+     * @param contracts IB contracts
+     * @param params    Backfill parameters, shared by all contracts
+     * @return Flux with the bars in time order per contract, in the order of contracts
+     * @see #backfill(Contract, BackfillParams)
+     */
+    public Map<Contract, Flux<IbBar>> backfill(List<Contract> contracts, BackfillParams params) {
+        Validators.collectionShouldNotBeEmpty(contracts, "Contracts should be defined");
+
+        Map<Contract, Flux<IbBar>> result = new LinkedHashMap<>();
+        for (Contract contract : contracts) {
+            result.put(contract, backfill(contract, params));
+        }
+        return result;
     }
 
     /**
@@ -991,20 +1851,31 @@ public class IbClient implements AutoCloseable {
                 type,
                 tradingHours);
 
-        return requests.<IbBar>builder()
-                .type(RequestRepository.Type.EVENT_HISTORICAL_DATA)
-                .register(id -> socket.reqHistoricalData(id,
-                        contract,
-                        null,
-                        String.format("%d %s", duration, durationUnit.toString()),
-                        size.toString(),
-                        type.toString(),
-                        tradingHours == TradingHours.Within ? 1 : 0,
-                        1,
-                        true,
-                        null))
-                .unregister(id -> socket.cancelHistoricalData(id))
-                .subscribe();
+        String durationStr = String.format("%d %s", duration, durationUnit.toString());
+        String requestKey = String.join(" ",
+                historicalContractKey(contract, type.toString()),
+                durationStr,
+                size.toString(),
+                tradingHours.toString(),
+                "keepUpToDate");
+
+        // Subscription never completes, so it's paced, but not shared with identical requests
+        return historicalPacer.paced(historicalContractKey(contract, type.toString()),
+                requestKey,
+                () -> requests.<IbBar>builder()
+                        .type(RequestRepository.Type.EVENT_HISTORICAL_DATA)
+                        .register(id -> socket.reqHistoricalData(id,
+                                contract,
+                                null,
+                                durationStr,
+                                size.toString(),
+                                type.toString(),
+                                tradingHours == TradingHours.Within ? 1 : 0,
+                                1,
+                                true,
+                                null))
+                        .unregister(id -> socket.cancelHistoricalData(id))
+                        .subscribe());
     }
 
     /**
@@ -1034,6 +1905,16 @@ public class IbClient implements AutoCloseable {
                 .subscribe();
     }
 
+    /**
+     * Subscription to fills of a single order.
+     *
+     * @return Flux that emits executions of the order as their commission reports arrive. Never completes.
+     * @implNote Fills are routed by order ID, so a subscriber receives only fills of its order.
+     */
+    public Flux<IbExecutionReport> subscribeOnFills(int orderId) {
+        return orderRouter.fills(orderId);
+    }
+
     private <T> Flux<T> reqHistoricalTicks(
             Contract contract,
             LocalDateTime from,
@@ -1043,21 +1924,159 @@ public class IbClient implements AutoCloseable {
             String typeStr) {
         Validators.shouldNotBeNull(contract, "Contract should be defined");
 
-        final int MAX_ALLOWED_TICKS_COUNT = 1000;
-
         if (limit != null) {
             Validators.intShouldBeInRange(limit, 1, MAX_ALLOWED_TICKS_COUNT);
         }
 
-        return requests.<List<T>>builder().type(type).register(id -> socket.reqHistoricalTicks(id,
-                contract,
+        return reqHistoricalTicks(contract,
                 from != null ? from.format(dateTimeFormatter) : null,
                 to != null ? to.format(dateTimeFormatter) : null,
                 limit != null ? limit : MAX_ALLOWED_TICKS_COUNT,
-                typeStr,
-                0,
-                true,
-                null)).subscribe().flatMap(Flux::fromIterable);
+                type,
+                typeStr);
+    }
+
+    private <T> Flux<T> reqHistoricalTicks(
+            Contract contract,
+            String fromStr,
+            String toStr,
+            int count,
+            RequestRepository.Type type,
+            String typeStr) {
+        String requestKey = String.join(" ",
+                historicalContractKey(contract, typeStr),
+                String.valueOf(fromStr),
+                String.valueOf(toStr),
+                Integer.toString(count));
+
+        return historicalPacer.submit(historicalContractKey(contract, typeStr),
+                requestKey,
+                () -> requests.<List<T>>builder().type(type).register(id -> socket.reqHistoricalTicks(id,
+                        contract,
+                        fromStr,
+                        toStr,
+                        count,
+                        typeStr,
+                        0,
+                        true,
+                        null)).subscribe().flatMap(Flux::fromIterable));
+    }
+
+    private <T> Flux<T> paginateHistoricalTicks(
+            Contract contract,
+            Instant from,
+            Instant to,
+            RequestRepository.Type type,
+            String typeStr,
+            ToLongFunction<T> timeOf) {
+        Validators.shouldNotBeNull(contract, "Contract should be defined");
+        Validators.shouldNotBeNull(from, "Range start should be defined");
+        Validators.shouldNotBeNull(to, "Range end should be defined");
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start should be before its end");
+        }
+
+        long toSecond = to.getEpochSecond();
+        // Pages are expanded one after another without nesting, so a long range doesn't deepen the operator chain
+        return historicalTicksPage(contract, from.getEpochSecond(), 0, toSecond, type, typeStr, timeOf)
+                .expand(page -> page.isLast() ? Mono.empty() : historicalTicksPage(contract,
+                        page.nextSecond,
+                        page.nextSkip,
+                        toSecond,
+                        type,
+                        typeStr,
+                        timeOf))
+                .concatMap(page -> page.error != null
+                        ? Flux.fromIterable(page.ticks).concatWith(Flux.error(page.error))
+                        : Flux.fromIterable(page.ticks), 1);
+    }
+
+    /**
+     * Requests ticks starting from the second.
+     *
+     * @param skip Number of ticks of the starting second, that have been emitted by the previous page. TWS returns
+     *             all ticks of the starting second again, as soon its time has a second precision.
+     */
+    private <T> Mono<TicksPage<T>> historicalTicksPage(
+            Contract contract,
+            long fromSecond,
+            int skip,
+            long toSecond,
+            RequestRepository.Type type,
+            String typeStr,
+            ToLongFunction<T> timeOf) {
+
+        return Mono.defer(() -> this.<T>reqHistoricalTicks(contract,
+                        gmtDateTimeFormatter.format(Instant.ofEpochSecond(fromSecond)),
+                        null,
+                        MAX_ALLOWED_TICKS_COUNT,
+                        type,
+                        typeStr)
+                .collectList()
+                .map(ticks -> {
+                    TicksPage<T> page = new TicksPage<>(ticks.size());
+                    int skipped = 0;
+                    boolean rangeEnd = ticks.size() < MAX_ALLOWED_TICKS_COUNT;
+
+                    for (T tick : ticks) {
+                        long time = timeOf.applyAsLong(tick);
+                        if (time >= toSecond) {
+                            rangeEnd = true;
+                            break;
+                        }
+                        if (time == fromSecond && skipped < skip) {
+                            skipped++;
+                            continue;
+                        }
+                        page.ticks.add(tick);
+                    }
+
+                    if (rangeEnd) {
+                        return page;
+                    }
+
+                    long lastSecond = timeOf.applyAsLong(ticks.get(ticks.size() - 1));
+                    if (lastSecond == fromSecond) {
+                        // TWS can't page within a second, the rest of the second can't be fetched
+                        page.error = new IbExceptions.TicksTruncatedError(Instant.ofEpochSecond(fromSecond),
+                                ticks.size());
+                        return page;
+                    }
+
+                    int lastSecondTicks = 0;
+                    for (T tick : ticks) {
+                        if (timeOf.applyAsLong(tick) == lastSecond) {
+                            lastSecondTicks++;
+                        }
+                    }
+                    page.nextSecond = lastSecond;
+                    page.nextSkip = lastSecondTicks;
+                    return page;
+                }));
+    }
+
+    private static class TicksPage<T> {
+        private final List<T> ticks;
+        // Start of the next page, or -1 if this page is the last one
+        private long nextSecond = -1;
+        private int nextSkip;
+        private IbExceptions.IbClientError error;
+
+        TicksPage(int capacity) {
+            ticks = new ArrayList<>(capacity);
+        }
+
+        boolean isLast() {
+            return nextSecond < 0;
+        }
+    }
+
+    /**
+     * @return key of the contract, exchange and tick type for historical data pacing
+     */
+    private static String historicalContractKey(Contract contract, String type) {
+        String contractKey = contract.conid() != 0 ? Integer.toString(contract.conid()) : contract.description();
+        return String.join(":", contractKey, String.valueOf(contract.exchange()), type);
     }
 
     public enum LogLevel {
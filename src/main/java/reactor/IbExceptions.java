@@ -2,6 +2,9 @@ package reactor;
 
 import reactor.impl.request.RequestKey;
 
+import java.time.Instant;
+import java.util.Arrays;
+
 @SuppressWarnings({"WeakerAccess"})
 public class IbExceptions {
 
@@ -81,6 +84,39 @@ public class IbExceptions {
         }
     }
 
+    /**
+     * Some orders are still working when the deadline of a cancellation expires.
+     */
+    public static class OrdersNotCancelledError extends IbClientError {
+        private final int[] orderIds;
+
+        public OrdersNotCancelledError(int[] orderIds) {
+            super(String.format("Orders %s are not cancelled", Arrays.toString(orderIds)));
+            this.orderIds = orderIds;
+        }
+
+        public int[] getOrderIds() {
+            return orderIds.clone();
+        }
+    }
+
+    /**
+     * TWS has more ticks within a second than it returns per request, and the rest of the second can't be fetched.
+     * Ticks before it have been emitted, the stream can be resumed from the next second.
+     */
+    public static class TicksTruncatedError extends IbClientError {
+        private final Instant second;
+
+        public TicksTruncatedError(Instant second, int count) {
+            super(String.format("More than %d ticks at %s, the rest of the second is not available", count, second));
+            this.second = second;
+        }
+
+        public Instant getSecond() {
+            return second;
+        }
+    }
+
     public static class SubscriptionLostByDisconnectError extends IbClientError {
         public SubscriptionLostByDisconnectError(int requestId, String message) {
             super(requestId, message);
@@ -104,4 +140,10 @@ public class IbExceptions {
             super(requestId, message);
         }
     }
+
+    public static class PacingViolationError extends IbClientError {
+        public PacingViolationError(int requestId, String message) {
+            super(requestId, message);
+        }
+    }
 }
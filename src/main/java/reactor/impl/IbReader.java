@@ -1,8 +1,8 @@
 package reactor.impl;
 
 import com.ib.client.EClientSocket;
-import com.ib.client.EJavaSignal;
 import com.ib.client.EReader;
+import com.ib.client.EReaderSignal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,14 +12,19 @@ public class IbReader {
 
     private static final int STOP_TIMEOUT_MS = 1000;
     private static final int WAIT_TIMEOUT_MS = 100;
-    private final EJavaSignal signal;
+    private final EReaderSignal signal;
     private final EClientSocket socket;
+    private final Runnable onBatchEnd;
     private EReader reader;
     private final Thread thread = new Thread(this::processMessages);
 
-    public IbReader(EClientSocket socket, EJavaSignal signal) {
+    /**
+     * @param onBatchEnd Called after every batch of messages, may be null
+     */
+    public IbReader(EClientSocket socket, EReaderSignal signal, Runnable onBatchEnd) {
         this.socket = socket;
         this.signal = signal;
+        this.onBatchEnd = onBatchEnd;
 
         thread.setName("IbReader");
         thread.setPriority(Thread.MAX_PRIORITY);
@@ -62,6 +67,9 @@ public class IbReader {
                 signal.waitForSignal();
                 try {
                     reader.processMsgs();
+                    if (onBatchEnd != null) {
+                        onBatchEnd.run();
+                    }
                 } catch (Exception e) {
                     log.error("Reader error", e);
                 }
@@ -32,4 +32,20 @@ public class IdGenerator {
 
         return orderId.getAndIncrement();
     }
+
+    /**
+     * Allocates a block of consecutive IDs with a single update.
+     *
+     * @return the first ID of the block
+     */
+    public int nextIds(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count of IDs should be positive");
+        }
+        if (orderId.get() == INVALID_ID) {
+            throw new IllegalStateException("Has no request ID from TWS");
+        }
+
+        return orderId.getAndAdd(count);
+    }
 }
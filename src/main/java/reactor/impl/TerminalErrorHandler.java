@@ -147,6 +147,7 @@ public abstract class TerminalErrorHandler {
         final String HISTORICAL_DATA_CANCEL_MSG = "API historical data query cancelled";
         final String HISTORICAL_DATA_NO_PERMISSIONS_MSG = "No market data permissions for";
         final String HISTORICAL_DATA_NO_DATA_MSG = "HMDS query returned no data";
+        final String HISTORICAL_DATA_PACING_MSG = "pacing violation";
 
         if (!message.startsWith(HISTORICAL_DATA_MSG)) {
             log.error("Unexpected message for REQ_HISTORICAL_DATA: {}", message);
@@ -163,6 +164,8 @@ public abstract class TerminalErrorHandler {
             requests.onError(null, id, new IbExceptions.NoPermissions(id, messageInfo), true);
         } else if (messageInfo.startsWith(HISTORICAL_DATA_NO_DATA_MSG)) {
             requests.onError(null, id, new IbExceptions.NoDataError(id, messageInfo), true);
+        } else if (messageInfo.toLowerCase().contains(HISTORICAL_DATA_PACING_MSG)) {
+            requests.onError(null, id, new IbExceptions.PacingViolationError(id, messageInfo), true);
         } else {
             requests.onError(null, id, new IbExceptions.IbClientError(id, message), true);
         }
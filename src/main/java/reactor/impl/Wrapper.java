@@ -6,9 +6,13 @@ import com.ib.client.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.IbExceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 import reactor.impl.cache.CacheRepository;
+import reactor.impl.cache.DepthContext;
+import reactor.impl.cache.TickRing;
 import reactor.impl.connection.ConnectionMonitor;
+import reactor.impl.request.OrderRouter;
 import reactor.impl.request.RequestRepository;
 import reactor.impl.utils.Converter;
 import reactor.types.*;
@@ -17,17 +21,24 @@ import reactor.utils.PrettyPrinters;
 import java.math.BigDecimal;
 import java.net.SocketException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Wrapper implements EWrapper {
 
     private static final Logger log = LoggerFactory.getLogger(Wrapper.class);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long REALTIME_BAR_NANOS = 5 * NANOS_PER_SECOND;
     private final TerminalErrorHandler errorHandler;
     private final ConnectionMonitor connectionMonitor;
     private final CacheRepository cache;
     private final RequestRepository requests;
     private final IdGenerator idGenerator;
+    private final OrderRouter orderRouter;
+    private final Sinks.Many<Boolean> batchEnds = Sinks.many().multicast().directBestEffort();
+    // Batch ends not signalled yet, the thread which raises it from 0 emits until it drops back to 0
+    private final AtomicInteger pendingBatchEnds = new AtomicInteger();
     private Set<String> managedAccounts;
     private EClientSocket socket;
 
@@ -36,6 +47,7 @@ public class Wrapper implements EWrapper {
         CacheRepository cache,
         RequestRepository requests,
         IdGenerator idGenerator,
+        OrderRouter orderRouter,
         Sinks.Many<IbLogRecord> logObserver
     ) {
 
@@ -67,6 +79,34 @@ public class Wrapper implements EWrapper {
         this.cache = cache;
         this.requests = requests;
         this.idGenerator = idGenerator;
+        this.orderRouter = orderRouter;
+    }
+
+    /**
+     * Called when a batch of received messages has been processed.
+     */
+    public void onBatchEnd() {
+        if (batchEnds.currentSubscriberCount() == 0) {
+            return;
+        }
+
+        // Dispatch threads can end their batches concurrently. Emissions are serialized, and every batch end is
+        // followed by an emission which starts after it, so changes of the batch are visible to the subscribers
+        if (pendingBatchEnds.getAndIncrement() != 0) {
+            return;
+        }
+        int pending = 1;
+        do {
+            batchEnds.tryEmitNext(Boolean.TRUE);
+            pending = pendingBatchEnds.addAndGet(-pending);
+        } while (pending != 0);
+    }
+
+    /**
+     * @return signals emitted after every batch of processed messages
+     */
+    public Flux<Boolean> getBatchEnds() {
+        return batchEnds.asFlux();
     }
 
     @Override
@@ -75,10 +115,9 @@ public class Wrapper implements EWrapper {
             return;
         }
 
-        IbTick result = cache.updateTick(tickerId,
-            (tick) -> tick.setPriceValue(tickerId, field, BigDecimal.valueOf(price), attribs)
-        );
+        IbTick result = cache.updateTickPrice(tickerId, field, price, attribs);
         publishNewTick(tickerId, result);
+        publishTickUpdate(tickerId, field, IbTick.Kind.PRICE, price, null, result);
     }
 
     @Override
@@ -87,24 +126,23 @@ public class Wrapper implements EWrapper {
             return;
         }
 
-        IbTick result =
-            cache.updateTick(tickerId, (tick) -> tick.setIntValue(tickerId, field, value));
+        IbTick result = cache.updateTickSize(tickerId, field, value);
         publishNewTick(tickerId, result);
+        publishTickUpdate(tickerId, field, IbTick.Kind.SIZE, value, null, result);
     }
 
     @Override
     public void tickGeneric(int tickerId, int field, double value) {
-        IbTick result = cache.updateTick(tickerId,
-            (tick) -> tick.setGenericValue(tickerId, field, BigDecimal.valueOf(value))
-        );
+        IbTick result = cache.updateTickGeneric(tickerId, field, value);
         publishNewTick(tickerId, result);
+        publishTickUpdate(tickerId, field, IbTick.Kind.GENERIC, value, null, result);
     }
 
     @Override
     public void tickString(int tickerId, int field, String value) {
-        IbTick result =
-            cache.updateTick(tickerId, (tick) -> tick.setStringValue(tickerId, field, value));
+        IbTick result = cache.updateTickString(tickerId, field, value);
         publishNewTick(tickerId, result);
+        publishTickUpdate(tickerId, field, IbTick.Kind.STRING, 0, value, result);
     }
 
     @Override
@@ -141,6 +179,7 @@ public class Wrapper implements EWrapper {
 
             log.info("New order status: {}", twsStatus);
             requests.onNext(RequestRepository.Type.EVENT_ORDER_STATUS, null, twsStatus, false);
+            orderRouter.onStatus(twsStatus);
 
             if (twsStatus.isCanceled()) {
                 requests.onNextAndComplete(RequestRepository.Type.REQ_ORDER_CANCEL,
@@ -285,6 +324,12 @@ public class Wrapper implements EWrapper {
 
     @Override
     public void historicalData(int reqId, Bar bar) {
+        if (requests.hasRequest(RequestRepository.Type.REQ_HISTORICAL_SERIES, reqId)) {
+            // Series are collected from raw bars, without IbBar objects
+            requests.onNext(RequestRepository.Type.REQ_HISTORICAL_SERIES, reqId, bar, false);
+            return;
+        }
+
         IbBar ibBar = new IbBar(bar);
         log.trace("historicalData: {}", ibBar);
         requests.onNext(RequestRepository.Type.REQ_HISTORICAL_DATA, reqId, ibBar, false);
@@ -294,6 +339,10 @@ public class Wrapper implements EWrapper {
     @Override
     public void historicalDataEnd(int reqId, String startDateStr, String endDateStr) {
         log.trace("historicalDataEnd: startDateStr={}, endDateStr={}", startDateStr, endDateStr);
+        if (requests.hasRequest(RequestRepository.Type.REQ_HISTORICAL_SERIES, reqId)) {
+            requests.onComplete(RequestRepository.Type.REQ_HISTORICAL_SERIES, reqId, false);
+            return;
+        }
         requests.onComplete(RequestRepository.Type.REQ_HISTORICAL_DATA, reqId, false);
         requests.onNext(RequestRepository.Type.EVENT_HISTORICAL_DATA, reqId, IbBar.COMPLETE, false);
     }
@@ -436,6 +485,7 @@ public class Wrapper implements EWrapper {
             );
 
             requests.onNext(RequestRepository.Type.EVENT_EXECUTION_INFO, null, execReport, false);
+            orderRouter.onFill(execReport.getExecution().getOrderId(), execReport);
         });
     }
 
@@ -530,7 +580,29 @@ public class Wrapper implements EWrapper {
         final double wap,
         final int count
     ) {
-        log.trace("realtimeBar: NOT IMPLEMENTED");
+        if (!requests.hasRequest(RequestRepository.Type.EVENT_REALTIME_BARS, reqId)) {
+            log.trace("realtimeBar: unknown request id={}", reqId);
+            return;
+        }
+
+        Object conid = requests.getUserData(RequestRepository.Type.EVENT_REALTIME_BARS, reqId);
+        long start = time * NANOS_PER_SECOND;
+        requests.onNext(RequestRepository.Type.EVENT_REALTIME_BARS,
+            reqId,
+            new IbLiveBar(conid != null ? (int) conid : 0,
+                start,
+                start + REALTIME_BAR_NANOS,
+                open,
+                high,
+                low,
+                close,
+                volume,
+                count,
+                wap,
+                true
+            ),
+            false
+        );
     }
 
     @Override
@@ -559,7 +631,7 @@ public class Wrapper implements EWrapper {
             return;
         }
 
-        requests.onNextAndComplete(null, tickerId, tick, false);
+        requests.onNextAndComplete(null, tickerId, tick.snapshot(), false);
     }
 
     @Override
@@ -937,7 +1009,18 @@ public class Wrapper implements EWrapper {
         String exchange,
         String specialConditions
     ) {
-        log.trace("tickByTickAllLast: NOT IMPLEMENTED");
+        TickRing ring = cache.getTickRing(reqId);
+        if (ring == null) {
+            log.trace("tickByTickAllLast: unknown request id={}", reqId);
+            return;
+        }
+
+        ring.add(time, price, size, 0, 0, 0, 0);
+        requests.onNext(RequestRepository.Type.EVENT_TICK_BY_TICK,
+            reqId,
+            new IbTickByTick(ring.getConid(), ring.getKind(), time, price, size, 0, 0, 0, 0, exchange),
+            false
+        );
     }
 
     @Override
@@ -950,12 +1033,34 @@ public class Wrapper implements EWrapper {
         int askSize,
         TickAttribBidAsk tickAttribBidAsk
     ) {
-        log.trace("tickByTickBidAsk: NOT IMPLEMENTED");
+        TickRing ring = cache.getTickRing(reqId);
+        if (ring == null) {
+            log.trace("tickByTickBidAsk: unknown request id={}", reqId);
+            return;
+        }
+
+        ring.add(time, 0, 0, bidPrice, bidSize, askPrice, askSize);
+        requests.onNext(RequestRepository.Type.EVENT_TICK_BY_TICK,
+            reqId,
+            new IbTickByTick(ring.getConid(), ring.getKind(), time, 0, 0, bidPrice, bidSize, askPrice, askSize, null),
+            false
+        );
     }
 
     @Override
     public void tickByTickMidPoint(int reqId, long time, double midPoint) {
-        log.trace("tickByTickMidPoint: NOT IMPLEMENTED");
+        TickRing ring = cache.getTickRing(reqId);
+        if (ring == null) {
+            log.trace("tickByTickMidPoint: unknown request id={}", reqId);
+            return;
+        }
+
+        ring.add(time, midPoint, 0, 0, 0, 0, 0);
+        requests.onNext(RequestRepository.Type.EVENT_TICK_BY_TICK,
+            reqId,
+            new IbTickByTick(ring.getConid(), ring.getKind(), time, midPoint, 0, 0, 0, 0, 0, null),
+            false
+        );
     }
 
     @Override
@@ -988,6 +1093,24 @@ public class Wrapper implements EWrapper {
         requests.onNext(RequestRepository.Type.EVENT_MARKET_DATA, tickerId, result, false);
     }
 
+    private void publishTickUpdate(
+        int tickerId, int field, IbTick.Kind kind, double value, String text, IbTick tick
+    ) {
+        // Update object is created only if somebody listens for it
+        if (!requests.hasRequest(RequestRepository.Type.EVENT_MARKET_DATA_UPDATE, tickerId)) {
+            return;
+        }
+
+        IbTick.Types type = IbTick.Types.find(field);
+        if (type == null || type.getKind() != kind) {
+            return;
+        }
+
+        IbTickUpdate update =
+            new IbTickUpdate(tickerId, type, value, text, tick.getUpdateTimeNanos());
+        requests.onNext(RequestRepository.Type.EVENT_MARKET_DATA_UPDATE, tickerId, update, false);
+    }
+
     public Set<String> getManagedAccounts() {
         return managedAccounts;
     }
@@ -1002,25 +1125,12 @@ public class Wrapper implements EWrapper {
         int size
     ) {
 
-        Contract contract =
-            (Contract) requests.getUserData(RequestRepository.Type.EVENT_MARKET_DATA_LVL2,
-                tickerId
-            );
-        Objects.requireNonNull(contract);
-
-        IbMarketDepth orderBookDepth = new IbMarketDepth(contract,
-            position,
-            side,
-            BigDecimal.valueOf(price),
-            size,
-            marketMaker
-        );
-        cache.addMarketDepth(contract, orderBookDepth, IbMarketDepth.Operation.values()[operation]);
+        DepthContext context = cache.getDepthContext(tickerId);
+        if (context == null) {
+            log.debug("Market depth update of unknown ticker {}", tickerId);
+            return;
+        }
 
-        requests.onNext(RequestRepository.Type.EVENT_MARKET_DATA_LVL2,
-            tickerId,
-            orderBookDepth,
-            true
-        );
+        context.update(position, operation, side, price, size, marketMaker);
     }
 }
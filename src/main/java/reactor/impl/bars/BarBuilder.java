@@ -0,0 +1,191 @@
+package reactor.impl.bars;
+
+import reactor.params.BarAggregation;
+import reactor.types.IbLiveBar;
+import reactor.types.IbTick;
+import reactor.types.IbTickUpdate;
+
+import java.util.function.Consumer;
+
+/**
+ * Incrementally aggregates trades or smaller bars of a contract into bars.
+ *
+ * <p>State of the unfinished bar is kept in primitive fields, so the only allocation per trade is the emitted bar
+ * itself. Time bars are completed either by the first trade of the next interval or by {@link #onTime}, whichever
+ * comes first. Intervals without trades produce no bars. A trade which is received after its time bar has been
+ * completed (e.g. because of coarse trade times) is added to the next bar, so a completed bar is never emitted twice.
+ */
+public class BarBuilder {
+
+    private final int conid;
+    private final long intervalNanos;
+    private final long barVolume;
+    private final boolean partial;
+
+    private double lastPrice = Double.NaN;
+    // TWS repeats the last size alone when only the size of the last trade changed, it isn't a new trade
+    private boolean lastTrade;
+
+    private boolean open;
+    // End of the latest completed time bar, no later trade reopens its interval
+    private long completedUntil = Long.MIN_VALUE;
+    private long start;
+    private long end;
+    private double openPrice;
+    private double high;
+    private double low;
+    private double close;
+    private long volume;
+    private int count;
+    private double notional;
+
+    public BarBuilder(int conid, BarAggregation aggregation) {
+        this.conid = conid;
+        intervalNanos = aggregation.getIntervalNanos();
+        barVolume = aggregation.getVolume();
+        partial = aggregation.isPartial();
+    }
+
+    /**
+     * Takes trades from a market data stream: the last price followed by the last size. A last size without a
+     * preceding last price is not counted.
+     *
+     * @implNote Market data is a sampled stream, so trades between samples are missed. Use tick-by-tick trades for
+     *           exact bars.
+     */
+    public synchronized void onUpdate(IbTickUpdate update, Consumer<IbLiveBar> sink) {
+        if (update.getField() == IbTick.Types.LAST) {
+            lastPrice = update.getValue();
+            lastTrade = true;
+        } else if (update.getField() == IbTick.Types.LAST_SIZE && lastTrade) {
+            lastTrade = false;
+            if (!Double.isNaN(lastPrice) && update.getValue() > 0) {
+                onTrade(update.getTimestamp(), lastPrice, (long) update.getValue(), sink);
+            }
+        }
+    }
+
+    /**
+     * @param time Epoch nanoseconds of the trade
+     */
+    public synchronized void onTrade(long time, double price, long size, Consumer<IbLiveBar> sink) {
+        if (intervalNanos > 0) {
+            long barStart = Math.max(Math.floorDiv(time, intervalNanos) * intervalNanos, completedUntil);
+            if (open && barStart < start) {
+                barStart = start;
+            }
+            if (open && barStart > start) {
+                sink.accept(complete());
+            }
+            if (!open) {
+                begin(barStart, barStart + intervalNanos, price);
+            }
+            add(time, price, size);
+        } else {
+            long rest = size;
+            do {
+                if (!open) {
+                    begin(time, time, price);
+                }
+                long part = Math.min(rest, barVolume - volume);
+                add(time, price, part);
+                rest -= part;
+                if (volume >= barVolume) {
+                    sink.accept(complete());
+                }
+            } while (rest > 0);
+        }
+
+        if (partial && open) {
+            sink.accept(bar(false));
+        }
+    }
+
+    /**
+     * Rolls a smaller time bar up into the bar of its interval. The bar is completed as soon as its last part is
+     * received.
+     */
+    public synchronized void onBar(IbLiveBar part, Consumer<IbLiveBar> sink) {
+        long barStart = Math.floorDiv(part.getStart(), intervalNanos) * intervalNanos;
+        if (open && barStart > start) {
+            sink.accept(complete());
+        }
+        if (!open) {
+            begin(barStart, barStart + intervalNanos, part.getOpen());
+        }
+
+        high = Math.max(high, part.getHigh());
+        low = Math.min(low, part.getLow());
+        close = part.getClose();
+        // Bars of quotes have no volume, TWS sends -1 instead
+        if (part.getVolume() > 0) {
+            volume += part.getVolume();
+            count += part.getCount();
+            notional += part.getWap() * part.getVolume();
+        }
+
+        if (part.getEnd() >= end) {
+            sink.accept(complete());
+        } else if (partial) {
+            sink.accept(bar(false));
+        }
+    }
+
+    /**
+     * Completes the time bar, if its interval is over.
+     *
+     * @param now Epoch nanoseconds
+     */
+    public synchronized void onTime(long now, Consumer<IbLiveBar> sink) {
+        if (open && intervalNanos > 0 && now >= end) {
+            sink.accept(complete());
+        }
+    }
+
+    private void begin(long barStart, long barEnd, double price) {
+        open = true;
+        start = barStart;
+        end = barEnd;
+        openPrice = price;
+        high = price;
+        low = price;
+        volume = 0;
+        count = 0;
+        notional = 0;
+    }
+
+    private void add(long time, double price, long size) {
+        high = Math.max(high, price);
+        low = Math.min(low, price);
+        close = price;
+        volume += size;
+        count++;
+        notional += price * size;
+        if (intervalNanos == 0) {
+            end = time;
+        }
+    }
+
+    private IbLiveBar complete() {
+        open = false;
+        if (intervalNanos > 0) {
+            completedUntil = end;
+        }
+        return bar(true);
+    }
+
+    private IbLiveBar bar(boolean complete) {
+        return new IbLiveBar(conid,
+            start,
+            end,
+            openPrice,
+            high,
+            low,
+            close,
+            volume,
+            count,
+            volume > 0 ? notional / volume : close,
+            complete
+        );
+    }
+}
@@ -1,23 +1,24 @@
 package reactor.impl.cache;
 
-import com.google.common.collect.ImmutableMap;
 import com.ib.client.Contract;
+import com.ib.client.TickAttrib;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.impl.utils.EpochClock;
+import reactor.impl.utils.IntTable;
 import reactor.types.*;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Consumer;
 
 public class CacheRepository {
 
     private static final Logger log = LoggerFactory.getLogger(CacheRepository.class);
+    private static final int DEFAULT_TICK_RING_SIZE = 1024;
 
-    private final ConcurrentHashMap<Integer, IbOrder> orders = new ConcurrentHashMap<>();
+    private final OrderStore orders = new OrderStore();
     private final ConcurrentHashMap<PositionKey, IbPosition> positions = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Integer, IbTick> ticks = new ConcurrentHashMap<>();
+    private final IntTable<IbTick> ticks = new IntTable<>();
     private final ConcurrentHashMap<Integer, IbPortfolio> portfolioContracts =
         new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Integer, IbAccountsSummary> accountSummaries =
@@ -25,42 +26,52 @@ public class CacheRepository {
     private final ConcurrentHashMap<String, IbExecutionReport> execReports =
         new ConcurrentHashMap<>();
 
-    private final ConcurrentHashMap<Integer, Map<IbMarketDepth.Key, IbMarketDepth>> orderBooks =
-        new ConcurrentHashMap<>();
+    // Depth subscriptions by ticker ID, and the subscription which provides the book of a contract
+    private final IntTable<DepthContext> depthContexts = new IntTable<>();
+    private final IntTable<DepthContext> bookOwners = new IntTable<>();
 
-    public boolean addOrder(IbOrder order) {
+    private final int tickRingSize;
+    // Rings of every tick-by-tick kind by contract ID, and rings of live subscriptions by request ID
+    private final IntTable<TickRing>[] tickRings;
+    private final IntTable<TickRing> tickRingRequests = new IntTable<>();
 
-        final AtomicReference<Boolean> result = new AtomicReference<>(false);
-        orders.compute(order.getOrderId(), (key, value) -> {
-            if (value != null) {
-                log.debug("Order {} already has been added", order.getOrderId());
-                result.set(false);
-                order.addStatuses(value.getStatuses());
-                return order;
-            }
+    public CacheRepository() {
+        this(DEFAULT_TICK_RING_SIZE);
+    }
 
-            result.set(true);
-            return order;
-        });
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CacheRepository(int tickRingSize) {
+        this.tickRingSize = tickRingSize;
+        tickRings = new IntTable[IbTickByTick.Kind.values().length];
+        for (int i = 0; i < tickRings.length; i++) {
+            tickRings[i] = new IntTable<>();
+        }
+    }
 
-        return result.get();
+    public boolean addOrder(IbOrder order) {
+        return orders.add(order);
     }
 
+    /**
+     * @return read-only view of all orders by ID
+     */
     public Map<Integer, IbOrder> getOrders() {
-        return ImmutableMap.copyOf(orders);
+        return orders.getAll();
     }
 
-    public boolean addNewStatus(IbOrderStatus status) {
-        IbOrder order = orders.get(status.getOrderId());
-        if (order == null) {
-            log.error("Status update for not (yet?) existing order {}: {}",
-                status.getOrderId(),
-                status
-            );
-            return false;
-        }
+    public IbOrder getOrder(int orderId) {
+        return orders.get(orderId);
+    }
 
-        return order.addStatus(status);
+    /**
+     * @return orders indexed by status, contract, account, permanent ID and parent ID
+     */
+    public OrderStore getOrderStore() {
+        return orders;
+    }
+
+    public boolean addNewStatus(IbOrderStatus status) {
+        return orders.addStatus(status);
     }
 
     public void updatePosition(IbPosition position) {
@@ -73,10 +84,27 @@ public class CacheRepository {
         portfolioContracts.put(portfolio.getContract().conid(), portfolio);
     }
 
-    public IbTick updateTick(int tickerId, Consumer<IbTick> consumer) {
-        IbTick tick = ticks.computeIfAbsent(tickerId, (key) -> new IbTick());
-        tick.refreshUpdateTime();
-        consumer.accept(tick);
+    public IbTick updateTickPrice(int tickerId, int field, double price, TickAttrib attribs) {
+        IbTick tick = getOrCreateTick(tickerId);
+        tick.setPriceValue(tickerId, field, price, attribs);
+        return tick;
+    }
+
+    public IbTick updateTickSize(int tickerId, int field, int size) {
+        IbTick tick = getOrCreateTick(tickerId);
+        tick.setIntValue(tickerId, field, size);
+        return tick;
+    }
+
+    public IbTick updateTickGeneric(int tickerId, int field, double value) {
+        IbTick tick = getOrCreateTick(tickerId);
+        tick.setGenericValue(tickerId, field, value);
+        return tick;
+    }
+
+    public IbTick updateTickString(int tickerId, int field, String value) {
+        IbTick tick = getOrCreateTick(tickerId);
+        tick.setStringValue(tickerId, field, value);
         return tick;
     }
 
@@ -96,19 +124,39 @@ public class CacheRepository {
         return accountSummaries.remove(id);
     }
 
+    /**
+     * @return copy of the contract's order book, or null if there is no book
+     */
     public Map<IbMarketDepth.Key, IbMarketDepth> getOrderBook(Contract contract) {
+        OrderBook book = getBook(contract);
+        return book != null ? book.toMap(contract) : null;
+    }
+
+    /**
+     * @return book of the first live depth subscription of the contract, or null if it's not subscribed
+     */
+    public OrderBook getBook(Contract contract) {
         Objects.requireNonNull(contract, "'contract' parameter is null");
         if (contract.conid() == 0) {
             throw new IllegalArgumentException("contract ID is missing");
         }
 
-        return orderBooks.get(contract.conid());
+        DepthContext owner = bookOwners.get(contract.conid());
+        return owner != null ? owner.getBook() : null;
     }
 
     public IbTick getTick(int tickerId) {
         return ticks.get(tickerId);
     }
 
+    /**
+     * @return consistent copy of ticker's market data, or null if there is no data
+     */
+    public IbTick getTickSnapshot(int tickerId) {
+        IbTick tick = ticks.get(tickerId);
+        return tick != null ? tick.snapshot() : null;
+    }
+
     public Collection<IbPosition> getPositions() {
         return Collections.unmodifiableCollection(positions.values());
     }
@@ -134,34 +182,81 @@ public class CacheRepository {
         return portfolioContracts.get(contract.conid());
     }
 
-    public void addMarketDepth(
-        Contract contract, IbMarketDepth marketDepth, IbMarketDepth.Operation operation
-    ) {
+    /**
+     * Attaches market depth subscription to its ticker ID, so depth updates go directly to its book. The first
+     * subscription of a contract provides the contract's book for {@link #getBook}.
+     */
+    public void attachDepthContext(int tickerId, DepthContext context) {
+        context.attach(tickerId);
+        depthContexts.put(tickerId, context);
+        bookOwners.putIfAbsent(context.getConid(), context);
+    }
 
-        orderBooks.compute(contract.conid(), (key, value) -> {
-            Map<IbMarketDepth.Key, IbMarketDepth> keyIbMarketDepthMap = value;
-            if (keyIbMarketDepthMap == null) {
-                keyIbMarketDepthMap = new HashMap<>();
+    public void detachDepthContext(DepthContext context) {
+        depthContexts.remove(context.getTickerId(), context);
+        if (bookOwners.remove(context.getConid(), context)) {
+            // Another subscription of the contract takes over
+            for (DepthContext other : depthContexts.values()) {
+                if (other.getConid() == context.getConid()) {
+                    bookOwners.putIfAbsent(other.getConid(), other);
+                    break;
+                }
             }
+        }
+        context.detach();
+    }
 
-            switch (operation) {
-                case INSERT -> {
-                    log.trace("Market depth is added: {}", marketDepth);
-                    keyIbMarketDepthMap.put(marketDepth.key(), marketDepth);
-                }
-                case UPDATE -> {
-                    log.trace("Market depth is updated: {}", marketDepth);
-                    keyIbMarketDepthMap.put(marketDepth.key(), marketDepth);
-                }
-                case REMOVE -> {
-                    log.trace("Market depth is removed: {}", marketDepth);
-                    keyIbMarketDepthMap.remove(marketDepth.key());
-                }
-                default -> throw new IllegalStateException("Unexpected value: " + operation);
+    public DepthContext getDepthContext(int tickerId) {
+        return depthContexts.get(tickerId);
+    }
+
+    /**
+     * Attaches tick-by-tick subscription to its request ID, so events go directly to the contract's ring.
+     *
+     * @return ring of the contract and kind
+     */
+    public TickRing attachTickRing(int reqId, int conid, IbTickByTick.Kind kind) {
+        IntTable<TickRing> rings = tickRings[kind.ordinal()];
+        TickRing ring = rings.get(conid);
+        if (ring == null) {
+            ring = new TickRing(conid, kind, tickRingSize);
+            TickRing prev = rings.putIfAbsent(conid, ring);
+            if (prev != null) {
+                ring = prev;
             }
+        }
+        tickRingRequests.put(reqId, ring);
+        return ring;
+    }
 
-            return keyIbMarketDepthMap;
-        });
+    public void detachTickRing(int reqId, TickRing ring) {
+        tickRingRequests.remove(reqId, ring);
+    }
+
+    public TickRing getTickRing(int reqId) {
+        return tickRingRequests.get(reqId);
+    }
+
+    /**
+     * @return latest tick-by-tick events of the contract, or null if it has never been subscribed
+     */
+    public TickRing getTickRing(Contract contract, IbTickByTick.Kind kind) {
+        Objects.requireNonNull(contract, "'contract' parameter is null");
+        Objects.requireNonNull(kind, "'kind' parameter is null");
+        return tickRings[kind.ordinal()].get(contract.conid());
+    }
+
+    private IbTick getOrCreateTick(int tickerId) {
+        IbTick tick = ticks.get(tickerId);
+        if (tick == null) {
+            tick = new IbTickStore().view();
+            IbTick prev = ticks.putIfAbsent(tickerId, tick);
+            if (prev != null) {
+                tick = prev;
+            }
+        }
+        tick.refreshUpdateTime(EpochClock.nanos());
+        return tick;
     }
 
     public void addExecutionReport(IbContract contract, IbExecution execution) {
@@ -188,9 +283,15 @@ public class CacheRepository {
         positions.clear();
         ticks.clear();
         portfolioContracts.clear();
-        orderBooks.clear();
         execReports.clear();
 
+        // Books belong to live depth subscriptions, only their rows are dropped
+        depthContexts.forEach(context -> context.getBook().clear());
+        for (IntTable<TickRing> rings : tickRings) {
+            rings.clear();
+        }
+        tickRingRequests.forEach(ring -> tickRings[ring.getKind().ordinal()].put(ring.getConid(), ring));
+
         log.debug("Cache is cleared");
     }
 }
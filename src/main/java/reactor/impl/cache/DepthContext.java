@@ -0,0 +1,109 @@
+package reactor.impl.cache;
+
+import com.ib.client.Contract;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.types.IbMarketDepth;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * State of a market depth subscription, attached to its ticker ID for the subscription lifetime.
+ *
+ * <p>Every subscription has its own book: IB inserts and removes rows by position, so updates of two
+ * subscriptions (e.g. with different number of rows) can't be applied to the same book.
+ *
+ * <p>Row updates are emitted to the row subscribers of the context directly, and {@link IbMarketDepth} is created
+ * only if there is one.
+ */
+public class DepthContext {
+
+    private final Contract contract;
+    private final int conid;
+    private final OrderBook book = new OrderBook();
+    private final CopyOnWriteArrayList<FluxSink<IbMarketDepth>> rowSinks = new CopyOnWriteArrayList<>();
+    private final Sinks.Empty<Void> detached = Sinks.empty();
+    private volatile int tickerId = -1;
+
+    public DepthContext(Contract contract) {
+        this.contract = contract;
+        this.conid = contract.conid();
+    }
+
+    public Contract getContract() {
+        return contract;
+    }
+
+    public int getConid() {
+        return conid;
+    }
+
+    public OrderBook getBook() {
+        return book;
+    }
+
+    /**
+     * @return ticker ID of the subscription, or -1 if it's not attached
+     */
+    public int getTickerId() {
+        return tickerId;
+    }
+
+    /**
+     * Applies a depth update to the book and emits the row to row subscribers.
+     */
+    public synchronized void update(
+        int position, int operation, int side, double price, int size, String marketMaker
+    ) {
+        if (!book.update(position, operation, side, price, size, marketMaker) || rowSinks.isEmpty()) {
+            return;
+        }
+
+        IbMarketDepth row = new IbMarketDepth(contract, position, side, BigDecimal.valueOf(price), size, marketMaker);
+        for (FluxSink<IbMarketDepth> sink : rowSinks) {
+            sink.next(row);
+        }
+    }
+
+    /**
+     * @return current rows of the book in side and position order, and then row updates. Completes when the
+     *         subscription is detached.
+     */
+    public Flux<IbMarketDepth> rows() {
+        return Flux.create(sink -> {
+            sink.onDispose(() -> rowSinks.remove(sink));
+            // Under the update lock, so no update is lost or applied twice between the snapshot and the join
+            synchronized (this) {
+                for (IbMarketDepth row : book.toList(contract)) {
+                    sink.next(row);
+                }
+                rowSinks.add(sink);
+            }
+        });
+    }
+
+    /**
+     * @return Mono which completes when the subscription is detached
+     */
+    public Mono<Void> onDetach() {
+        return detached.asMono();
+    }
+
+    void attach(int newTickerId) {
+        // TWS sends the book from scratch for a new ticker
+        book.clear();
+        tickerId = newTickerId;
+    }
+
+    void detach() {
+        tickerId = -1;
+        book.clear();
+        for (FluxSink<IbMarketDepth> sink : rowSinks) {
+            sink.complete();
+        }
+        detached.tryEmitEmpty();
+    }
+}
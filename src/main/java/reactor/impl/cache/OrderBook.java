@@ -0,0 +1,284 @@
+package reactor.impl.cache;
+
+import com.ib.client.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.impl.utils.EpochClock;
+import reactor.types.IbMarketDepth;
+import reactor.types.IbOrderBook;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order book of a single contract.
+ *
+ * <p>Rows of every side are stored in position-indexed primitive arrays, so an update is applied without
+ * allocation and any level is read in O(1). Operations follow IB semantics: INSERT shifts the rows at and below
+ * the position down, REMOVE shifts them up.
+ */
+public class OrderBook {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBook.class);
+
+    public static final int SIDE_ASK = 0;
+    public static final int SIDE_BID = 1;
+
+    public static final int OPERATION_INSERT = 0;
+    public static final int OPERATION_UPDATE = 1;
+    public static final int OPERATION_REMOVE = 2;
+
+    private static final int INITIAL_ROWS = 16;
+
+    private final Side asks = new Side();
+    private final Side bids = new Side();
+    private long version;
+
+    /**
+     * Applies a market depth update.
+     *
+     * @return false if the update is ignored
+     */
+    public synchronized boolean update(
+        int position, int operation, int side, double price, int size, String marketMaker
+    ) {
+        Side rows = side(side);
+        if (rows == null || position < 0) {
+            log.warn("Unexpected market depth update: position={}, side={}", position, side);
+            return false;
+        }
+
+        boolean result = switch (operation) {
+            case OPERATION_INSERT -> rows.insert(position, price, size, marketMaker);
+            case OPERATION_UPDATE -> rows.update(position, price, size, marketMaker);
+            case OPERATION_REMOVE -> rows.remove(position);
+            default -> {
+                log.warn("Unexpected market depth operation: {}", operation);
+                yield false;
+            }
+        };
+        if (result) {
+            version++;
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        asks.clear();
+        bids.clear();
+        version++;
+    }
+
+    /**
+     * @return number of applied updates, changes every time the book is changed
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int getDepth(int side) {
+        Side rows = side(side);
+        return rows != null ? rows.depth : 0;
+    }
+
+    /**
+     * @return price at the level, or NaN if there is no such level
+     */
+    public synchronized double getPrice(int side, int level) {
+        Side rows = side(side);
+        return rows != null && level >= 0 && level < rows.depth ? rows.prices[level] : Double.NaN;
+    }
+
+    /**
+     * @return size at the level, or 0 if there is no such level
+     */
+    public synchronized int getSize(int side, int level) {
+        Side rows = side(side);
+        return rows != null && level >= 0 && level < rows.depth ? rows.sizes[level] : 0;
+    }
+
+    public synchronized String getMarketMaker(int side, int level) {
+        Side rows = side(side);
+        return rows != null && level >= 0 && level < rows.depth ? rows.marketMakers[level] : null;
+    }
+
+    public double getBestBid() {
+        return getPrice(SIDE_BID, 0);
+    }
+
+    public double getBestAsk() {
+        return getPrice(SIDE_ASK, 0);
+    }
+
+    public int getBestBidSize() {
+        return getSize(SIDE_BID, 0);
+    }
+
+    public int getBestAskSize() {
+        return getSize(SIDE_ASK, 0);
+    }
+
+    /**
+     * Copies up to {@code maxRows} levels of the side into the arrays.
+     *
+     * @return number of copied levels
+     */
+    public synchronized int copySide(int side, int maxRows, double[] prices, int[] sizes, String[] marketMakers) {
+        Side rows = side(side);
+        if (rows == null) {
+            return 0;
+        }
+
+        int count = Math.min(Math.min(rows.depth, maxRows), prices.length);
+        System.arraycopy(rows.prices, 0, prices, 0, count);
+        System.arraycopy(rows.sizes, 0, sizes, 0, count);
+        if (marketMakers != null) {
+            System.arraycopy(rows.marketMakers, 0, marketMakers, 0, count);
+        }
+        return count;
+    }
+
+    /**
+     * Copies up to {@code maxRows} levels of both sides at once, so the snapshot is consistent.
+     */
+    public synchronized IbOrderBook snapshot(Contract contract, int maxRows) {
+        int bidDepth = Math.min(bids.depth, maxRows);
+        int askDepth = Math.min(asks.depth, maxRows);
+        return new IbOrderBook(contract,
+            version,
+            EpochClock.nanos(),
+            Arrays.copyOf(bids.prices, bidDepth),
+            Arrays.copyOf(bids.sizes, bidDepth),
+            Arrays.copyOf(asks.prices, askDepth),
+            Arrays.copyOf(asks.sizes, askDepth)
+        );
+    }
+
+    /**
+     * @return copy of the book in the {@link IbMarketDepth} form
+     */
+    public synchronized Map<IbMarketDepth.Key, IbMarketDepth> toMap(Contract contract) {
+        Map<IbMarketDepth.Key, IbMarketDepth> result = new HashMap<>();
+        asks.copyTo(contract, SIDE_ASK, result);
+        bids.copyTo(contract, SIDE_BID, result);
+        return result;
+    }
+
+    /**
+     * @return rows of the book, asks and then bids, every side from the top level
+     */
+    public synchronized List<IbMarketDepth> toList(Contract contract) {
+        List<IbMarketDepth> result = new ArrayList<>(asks.depth + bids.depth);
+        asks.copyTo(contract, SIDE_ASK, result);
+        bids.copyTo(contract, SIDE_BID, result);
+        return result;
+    }
+
+    private Side side(int side) {
+        return switch (side) {
+            case SIDE_ASK -> asks;
+            case SIDE_BID -> bids;
+            default -> null;
+        };
+    }
+
+    private static class Side {
+        private double[] prices = new double[INITIAL_ROWS];
+        private int[] sizes = new int[INITIAL_ROWS];
+        private String[] marketMakers = new String[INITIAL_ROWS];
+        private int depth;
+
+        boolean insert(int position, double price, int size, String marketMaker) {
+            if (position > depth) {
+                log.debug("Insert at position {} beyond book depth {}", position, depth);
+                position = depth;
+            }
+            ensureCapacity(depth + 1);
+
+            int tail = depth - position;
+            if (tail > 0) {
+                System.arraycopy(prices, position, prices, position + 1, tail);
+                System.arraycopy(sizes, position, sizes, position + 1, tail);
+                System.arraycopy(marketMakers, position, marketMakers, position + 1, tail);
+            }
+            set(position, price, size, marketMaker);
+            depth++;
+            return true;
+        }
+
+        boolean update(int position, double price, int size, String marketMaker) {
+            if (position >= depth) {
+                // TWS can update a row right after the end of the book instead of inserting it
+                return insert(position, price, size, marketMaker);
+            }
+            set(position, price, size, marketMaker);
+            return true;
+        }
+
+        boolean remove(int position) {
+            if (position >= depth) {
+                log.debug("Remove at position {} beyond book depth {}", position, depth);
+                return false;
+            }
+
+            int tail = depth - position - 1;
+            if (tail > 0) {
+                System.arraycopy(prices, position + 1, prices, position, tail);
+                System.arraycopy(sizes, position + 1, sizes, position, tail);
+                System.arraycopy(marketMakers, position + 1, marketMakers, position, tail);
+            }
+            depth--;
+            set(depth, 0, 0, null);
+            return true;
+        }
+
+        void clear() {
+            Arrays.fill(marketMakers, 0, depth, null);
+            depth = 0;
+        }
+
+        void copyTo(Contract contract, int side, Map<IbMarketDepth.Key, IbMarketDepth> result) {
+            for (int i = 0; i < depth; i++) {
+                IbMarketDepth row = row(contract, side, i);
+                result.put(row.key(), row);
+            }
+        }
+
+        void copyTo(Contract contract, int side, List<IbMarketDepth> result) {
+            for (int i = 0; i < depth; i++) {
+                result.add(row(contract, side, i));
+            }
+        }
+
+        private IbMarketDepth row(Contract contract, int side, int position) {
+            return new IbMarketDepth(contract,
+                position,
+                side,
+                BigDecimal.valueOf(prices[position]),
+                sizes[position],
+                marketMakers[position]
+            );
+        }
+
+        private void set(int position, double price, int size, String marketMaker) {
+            prices[position] = price;
+            sizes[position] = size;
+            marketMakers[position] = marketMaker;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= prices.length) {
+                return;
+            }
+
+            int newCapacity = Math.max(capacity, prices.length * 2);
+            prices = Arrays.copyOf(prices, newCapacity);
+            sizes = Arrays.copyOf(sizes, newCapacity);
+            marketMakers = Arrays.copyOf(marketMakers, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package reactor.impl.cache;
+
+import com.ib.client.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.types.IbOrder;
+import reactor.types.IbOrderStatus;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Orders by ID with secondary indexes by status, contract, account, permanent ID and parent ID.
+ *
+ * <p>Indexes are updated on every order and status change, so a query costs O(result) instead of a scan of all
+ * orders. Queries return live read-only views: creating a view doesn't copy anything, every iteration looks the
+ * key up again, so a view keeps following its key after the key has no orders or after {@link #clear}, and
+ * iteration reflects concurrent changes like iteration of a {@link ConcurrentHashMap}. Writes are serialized,
+ * reads are lock-free.
+ */
+public class OrderStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStore.class);
+
+    private final ConcurrentHashMap<Integer, IbOrder> orders = new ConcurrentHashMap<>();
+    private final Map<Integer, IndexedFields> fields = new HashMap<>();
+
+    private final Map<OrderStatus, Set<Integer>> byStatus = new EnumMap<>(OrderStatus.class);
+    private final Index<Integer> byConid = new Index<>();
+    private final Index<String> byAccount = new Index<>();
+    private final Index<Integer> byParentId = new Index<>();
+    private final Index<Integer> workingByConid = new Index<>();
+    private final Set<Integer> working = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Integer, Integer> byPermId = new ConcurrentHashMap<>();
+
+    public OrderStore() {
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Adds the order, or replaces the order with the same ID, keeping its statuses.
+     *
+     * @return true if the order is new
+     */
+    public synchronized boolean add(IbOrder order) {
+        IbOrder prev = orders.put(order.getOrderId(), order);
+        if (prev != null) {
+            log.debug("Order {} already has been added", order.getOrderId());
+            order.addStatuses(prev.getStatuses());
+        }
+        reindex(order);
+        return prev == null;
+    }
+
+    /**
+     * @return false if the status is already known, or there is no such order
+     */
+    public synchronized boolean addStatus(IbOrderStatus status) {
+        IbOrder order = orders.get(status.getOrderId());
+        if (order == null) {
+            log.error("Status update for not (yet?) existing order {}: {}",
+                status.getOrderId(),
+                status
+            );
+            return false;
+        }
+
+        if (!order.addStatus(status)) {
+            return false;
+        }
+        reindex(order);
+        return true;
+    }
+
+    public IbOrder get(int orderId) {
+        return orders.get(orderId);
+    }
+
+    public IbOrder getByPermId(int permId) {
+        Integer orderId = byPermId.get(permId);
+        return orderId != null ? orders.get(orderId) : null;
+    }
+
+    /**
+     * @return read-only view of all orders by ID
+     */
+    public Map<Integer, IbOrder> getAll() {
+        return Collections.unmodifiableMap(orders);
+    }
+
+    public Collection<IbOrder> getByStatus(OrderStatus status) {
+        Set<Integer> ids = byStatus.get(status);
+        return view(() -> ids);
+    }
+
+    public Collection<IbOrder> getByConid(int conid) {
+        return view(() -> byConid.get(conid));
+    }
+
+    public Collection<IbOrder> getByAccount(String account) {
+        return view(() -> byAccount.get(account));
+    }
+
+    public Collection<IbOrder> getChildren(int parentId) {
+        return view(() -> byParentId.get(parentId));
+    }
+
+    /**
+     * @return orders in an active status ({@link OrderStatus#isActive}): pre-submitted, submitted, pending submit or
+     *         pending cancel
+     */
+    public Collection<IbOrder> getWorking() {
+        return view(() -> working);
+    }
+
+    public Collection<IbOrder> getWorking(int conid) {
+        return view(() -> workingByConid.get(conid));
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    public synchronized void clear() {
+        orders.clear();
+        fields.clear();
+        byStatus.values().forEach(Set::clear);
+        byConid.clear();
+        byAccount.clear();
+        byParentId.clear();
+        workingByConid.clear();
+        working.clear();
+        byPermId.clear();
+    }
+
+    private void reindex(IbOrder order) {
+        int orderId = order.getOrderId();
+        IndexedFields next = new IndexedFields(order);
+        IndexedFields prev = fields.put(orderId, next);
+
+        if (prev == null || prev.status != next.status) {
+            if (prev != null) {
+                byStatus.get(prev.status).remove(orderId);
+            }
+            byStatus.get(next.status).add(orderId);
+        }
+        if (prev == null || prev.conid != next.conid) {
+            if (prev != null) {
+                byConid.remove(prev.conid, orderId);
+            }
+            byConid.add(next.conid, orderId);
+        }
+        if (prev == null || !Objects.equals(prev.account, next.account)) {
+            if (prev != null) {
+                byAccount.remove(prev.account, orderId);
+            }
+            byAccount.add(next.account, orderId);
+        }
+        if (prev == null || prev.parentId != next.parentId) {
+            if (prev != null) {
+                byParentId.remove(prev.parentId, orderId);
+            }
+            byParentId.add(next.parentId, orderId);
+        }
+        if (prev != null && prev.permId != next.permId) {
+            byPermId.remove(prev.permId, orderId);
+        }
+        if (next.permId != 0) {
+            byPermId.put(next.permId, orderId);
+        }
+
+        boolean wasWorking = prev != null && prev.status.isActive();
+        if (wasWorking && (!next.status.isActive() || prev.conid != next.conid)) {
+            working.remove(orderId);
+            workingByConid.remove(prev.conid, orderId);
+        }
+        if (next.status.isActive()) {
+            working.add(orderId);
+            workingByConid.add(next.conid, orderId);
+        }
+    }
+
+    private Collection<IbOrder> view(Supplier<Set<Integer>> ids) {
+        return new OrderView(ids);
+    }
+
+    /**
+     * Fields of the order as they are indexed, to drop stale index entries on change.
+     */
+    private static class IndexedFields {
+        private final OrderStatus status;
+        private final int conid;
+        private final String account;
+        private final int permId;
+        private final int parentId;
+
+        IndexedFields(IbOrder order) {
+            IbOrderStatus lastStatus = order.getLastStatus();
+            status = order.getCurrentStatus();
+            conid = order.getContract() != null ? order.getContract().conid() : 0;
+            account = order.getOrder() != null && order.getOrder().account() != null ? order.getOrder().account() : "";
+            permId = lastStatus != null && lastStatus.getPermId() != 0 ? lastStatus.getPermId() :
+                order.getOrder() != null ? order.getOrder().permId() : 0;
+            parentId = order.getOrder() != null ? order.getOrder().parentId() : 0;
+        }
+    }
+
+    private static class Index<K> {
+        private final ConcurrentHashMap<K, Set<Integer>> sets = new ConcurrentHashMap<>();
+
+        Set<Integer> get(K key) {
+            return sets.get(key);
+        }
+
+        void add(K key, int orderId) {
+            sets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(orderId);
+        }
+
+        void remove(K key, int orderId) {
+            // Sets of keys without orders are dropped, views look their keys up on every iteration
+            sets.computeIfPresent(key, (k, ids) -> {
+                ids.remove(orderId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+
+        void clear() {
+            sets.clear();
+        }
+    }
+
+    private class OrderView extends AbstractCollection<IbOrder> {
+        private final Supplier<Set<Integer>> ids;
+
+        OrderView(Supplier<Set<Integer>> ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public Iterator<IbOrder> iterator() {
+            Set<Integer> current = ids.get();
+            Iterator<Integer> iterator = current != null ? current.iterator() : Collections.emptyIterator();
+            return new Iterator<>() {
+                private IbOrder next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public IbOrder next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    IbOrder result = next;
+                    next = advance();
+                    return result;
+                }
+
+                private IbOrder advance() {
+                    while (iterator.hasNext()) {
+                        IbOrder order = orders.get(iterator.next());
+                        if (order != null) {
+                            return order;
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            Set<Integer> current = ids.get();
+            return current != null ? current.size() : 0;
+        }
+    }
+}
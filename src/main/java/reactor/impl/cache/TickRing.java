@@ -0,0 +1,181 @@
+package reactor.impl.cache;
+
+import reactor.types.IbTickByTick;
+
+/**
+ * Fixed-size buffer of the latest tick-by-tick events of a contract.
+ *
+ * <p>Events are stored in primitive columns which are allocated once, so adding an event and looking back never
+ * allocate. Events are addressed from the latest one: {@code back = 0} is the latest event, {@code back = 1} is
+ * the previous one and so on, up to {@link #size()} - 1.
+ *
+ * <p>Every getter takes the lock separately, so events can be added between two calls, and fields read by
+ * several getters may belong to different events. Use {@link #read} to look at consistent events.
+ */
+public class TickRing {
+
+    private final int conid;
+    private final IbTickByTick.Kind kind;
+    private final int mask;
+
+    private final long[] times;
+    private final double[] prices;
+    private final int[] sizes;
+    private final double[] bidPrices;
+    private final int[] bidSizes;
+    private final double[] askPrices;
+    private final int[] askSizes;
+    private long count;
+
+    /**
+     * @param capacity Number of kept events, should be a power of 2
+     */
+    public TickRing(int conid, IbTickByTick.Kind kind, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Tick ring capacity should be a power of 2");
+        }
+        this.conid = conid;
+        this.kind = kind;
+        mask = capacity - 1;
+        times = new long[capacity];
+        prices = new double[capacity];
+        sizes = new int[capacity];
+        bidPrices = new double[capacity];
+        bidSizes = new int[capacity];
+        askPrices = new double[capacity];
+        askSizes = new int[capacity];
+    }
+
+    public synchronized void add(
+        long time, double price, int size, double bidPrice, int bidSize, double askPrice, int askSize
+    ) {
+        int index = (int) (count & mask);
+        times[index] = time;
+        prices[index] = price;
+        sizes[index] = size;
+        bidPrices[index] = bidPrice;
+        bidSizes[index] = bidSize;
+        askPrices[index] = askPrice;
+        askSizes[index] = askSize;
+        count++;
+    }
+
+    public int getConid() {
+        return conid;
+    }
+
+    public IbTickByTick.Kind getKind() {
+        return kind;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return number of events added since the ring creation
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of events available for lookback
+     */
+    public synchronized int size() {
+        return (int) Math.min(count, mask + 1);
+    }
+
+    /**
+     * @return epoch seconds of the event
+     */
+    public synchronized long getTime(int back) {
+        return times[index(back)];
+    }
+
+    /**
+     * @return trade price or midpoint
+     */
+    public synchronized double getPrice(int back) {
+        return prices[index(back)];
+    }
+
+    public synchronized int getSize(int back) {
+        return sizes[index(back)];
+    }
+
+    public synchronized double getBidPrice(int back) {
+        return bidPrices[index(back)];
+    }
+
+    public synchronized int getBidSize(int back) {
+        return bidSizes[index(back)];
+    }
+
+    public synchronized double getAskPrice(int back) {
+        return askPrices[index(back)];
+    }
+
+    public synchronized int getAskSize(int back) {
+        return askSizes[index(back)];
+    }
+
+    /**
+     * Copies up to {@code max} latest prices into the array in time order, so the latest price is the last one.
+     *
+     * @return number of copied prices
+     */
+    public synchronized int copyPrices(double[] target, int max) {
+        int length = Math.min(Math.min(size(), max), target.length);
+        for (int i = 0; i < length; i++) {
+            target[i] = prices[index(length - 1 - i)];
+        }
+        return length;
+    }
+
+    /**
+     * Passes all fields of the event to the consumer under one lock.
+     */
+    public synchronized void read(int back, EventConsumer consumer) {
+        accept(index(back), consumer);
+    }
+
+    /**
+     * Passes up to {@code max} events from {@code back} to older ones to the consumer in time order, so the event
+     * at {@code back} is the last one. The events are read under one lock, so no event is added meanwhile.
+     *
+     * @return number of passed events
+     */
+    public synchronized int read(int back, int max, EventConsumer consumer) {
+        int length = Math.min(size() - back, max);
+        for (int i = length - 1; i >= 0; i--) {
+            accept(index(back + i), consumer);
+        }
+        return Math.max(length, 0);
+    }
+
+    private void accept(int index, EventConsumer consumer) {
+        consumer.accept(times[index],
+            prices[index],
+            sizes[index],
+            bidPrices[index],
+            bidSizes[index],
+            askPrices[index],
+            askSizes[index]);
+    }
+
+    private int index(int back) {
+        if (back < 0 || back >= size()) {
+            throw new IndexOutOfBoundsException("Event " + back + " back is out of ring size " + size());
+        }
+        return (int) ((count - 1 - back) & mask);
+    }
+
+    /**
+     * Receives fields of an event without boxing them into an {@link IbTickByTick}.
+     */
+    @FunctionalInterface
+    public interface EventConsumer {
+        void accept(long time, double price, int size, double bidPrice, int bidSize, double askPrice, int askSize);
+    }
+}
@@ -0,0 +1,42 @@
+package reactor.impl.dispatch;
+
+import com.ib.client.TickAttrib;
+
+/**
+ * Pre-allocated slot of a dispatch ring.
+ *
+ * <p>High-rate callbacks are stored into primitive fields, so they are handed over without allocation. Rare
+ * callbacks are stored as a {@link Runnable}.
+ */
+class DispatchEvent {
+
+    enum Kind {
+        TICK_PRICE,
+        TICK_SIZE,
+        TICK_GENERIC,
+        TICK_STRING,
+        MARKET_DEPTH,
+        MARKET_DEPTH_L2,
+        TASK,
+    }
+
+    Kind kind;
+    int tickerId;
+    int field;
+    int position;
+    int operation;
+    int side;
+    int size;
+    double value;
+    boolean isSmartDepth;
+    String text;
+    TickAttrib attrib;
+    Runnable task;
+
+    void clear() {
+        // Releasing references, so objects are not held by the ring after dispatch
+        text = null;
+        attrib = null;
+        task = null;
+    }
+}
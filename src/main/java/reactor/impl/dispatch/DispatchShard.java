@@ -0,0 +1,170 @@
+package reactor.impl.dispatch;
+
+import com.ib.client.EWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring of pre-allocated events with a single consumer thread.
+ *
+ * <p>Producers claim a sequence number, fill the slot and publish it. Consumer executes events strictly in
+ * sequence order, so events of one shard are dispatched in the order they have been decoded. When all
+ * published events are dispatched, {@code onDrain} is called, like at the end of a reader batch.
+ */
+class DispatchShard {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchShard.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final long FULL_RING_PARK_NS = 1_000;
+    private static final long IDLE_PARK_NS = 1_000_000;
+
+    private final EWrapper wrapper;
+    private final Runnable onDrain;
+    private final DispatchEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread thread;
+
+    private volatile long consumed;
+    private volatile boolean sleeping;
+
+    DispatchShard(String name, EWrapper wrapper, int capacity, Runnable onDrain) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Dispatch queue size should be a power of 2");
+        }
+
+        this.wrapper = wrapper;
+        this.onDrain = onDrain;
+        slots = new DispatchEvent[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new DispatchEvent();
+            published.set(i, -1);
+        }
+        mask = capacity - 1;
+
+        thread = new Thread(this::run);
+        thread.setName(name);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void close() {
+        thread.interrupt();
+    }
+
+    long sequence() {
+        return claimed.getAndIncrement();
+    }
+
+    /**
+     * Returns a slot for the sequence, waiting until consumer frees it, if the ring is full.
+     */
+    DispatchEvent slot(long sequence) {
+        while (sequence - consumed >= slots.length) {
+            if (thread.isInterrupted() || !thread.isAlive()) {
+                break;
+            }
+            LockSupport.parkNanos(FULL_RING_PARK_NS);
+        }
+        return slots[(int) (sequence & mask)];
+    }
+
+    void publish(long sequence) {
+        // Volatile store, so it can't be reordered with the load of the flag below (Dekker handshake with the
+        // consumer, which sets the flag and then re-checks the slot)
+        published.set((int) (sequence & mask), sequence);
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    int size() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    private void run() {
+        long next = 0;
+        int idle = 0;
+        boolean drained = true;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                if (!drained) {
+                    drained = true;
+                    drain();
+                }
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                sleeping = true;
+                if (published.get(index) != next) {
+                    // Bounded, so even a missed wakeup delays dispatch only slightly
+                    LockSupport.parkNanos(this, IDLE_PARK_NS);
+                }
+                sleeping = false;
+                continue;
+            }
+
+            idle = 0;
+            drained = false;
+            DispatchEvent event = slots[index];
+            try {
+                dispatch(event);
+            } catch (Exception e) {
+                log.error("Dispatch error", e);
+            } finally {
+                event.clear();
+                next++;
+                consumed = next;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            onDrain.run();
+        } catch (Exception e) {
+            log.error("Dispatch error", e);
+        }
+    }
+
+    private void dispatch(DispatchEvent event) {
+        switch (event.kind) {
+            case TICK_PRICE -> wrapper.tickPrice(event.tickerId, event.field, event.value, event.attrib);
+            case TICK_SIZE -> wrapper.tickSize(event.tickerId, event.field, event.size);
+            case TICK_GENERIC -> wrapper.tickGeneric(event.tickerId, event.field, event.value);
+            case TICK_STRING -> wrapper.tickString(event.tickerId, event.field, event.text);
+            case MARKET_DEPTH -> wrapper.updateMktDepth(event.tickerId,
+                event.position,
+                event.operation,
+                event.side,
+                event.value,
+                event.size
+            );
+            case MARKET_DEPTH_L2 -> wrapper.updateMktDepthL2(event.tickerId,
+                event.position,
+                event.text,
+                event.operation,
+                event.side,
+                event.value,
+                event.size,
+                event.isSmartDepth
+            );
+            case TASK -> event.task.run();
+            default -> throw new IllegalStateException("Unexpected value: " + event.kind);
+        }
+    }
+}
@@ -0,0 +1,769 @@
+package reactor.impl.dispatch;
+
+import com.ib.client.Bar;
+import com.ib.client.CommissionReport;
+import com.ib.client.Contract;
+import com.ib.client.ContractDescription;
+import com.ib.client.ContractDetails;
+import com.ib.client.DeltaNeutralContract;
+import com.ib.client.DepthMktDataDescription;
+import com.ib.client.EWrapper;
+import com.ib.client.Execution;
+import com.ib.client.FamilyCode;
+import com.ib.client.HistogramEntry;
+import com.ib.client.HistoricalTick;
+import com.ib.client.HistoricalTickBidAsk;
+import com.ib.client.HistoricalTickLast;
+import com.ib.client.NewsProvider;
+import com.ib.client.Order;
+import com.ib.client.OrderState;
+import com.ib.client.PriceIncrement;
+import com.ib.client.SoftDollarTier;
+import com.ib.client.TickAttrib;
+import com.ib.client.TickAttribBidAsk;
+import com.ib.client.TickAttribLast;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Decouples message decoding from callback processing.
+ *
+ * <p>Decoded messages are put into per-shard rings and the wrapped {@link EWrapper} is called from the shard
+ * threads, so a slow subscriber doesn't stall the reader. Messages are sharded by ticker/request ID, so every
+ * subscription is processed in order by a single thread. Messages without an ID (orders, positions, account
+ * updates) are processed by the first shard.
+ *
+ * <p>Connection lifecycle callbacks are called directly, because connection monitor relies on them.
+ */
+public class DispatchingWrapper implements EWrapper {
+
+    private static final int COMMON_SHARD = 0;
+
+    private final EWrapper wrapper;
+    private final DispatchShard[] shards;
+    private final IntPredicate isOrderId;
+
+    /**
+     * @param isOrderId Tells whether an ID of an error is an order ID, so the error is dispatched after statuses
+     *                  of the order
+     * @param onDrain   Called by a dispatch thread when its queue becomes empty
+     */
+    public DispatchingWrapper(
+        EWrapper wrapper,
+        int threads,
+        int queueSize,
+        IntPredicate isOrderId,
+        Runnable onDrain
+    ) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of dispatch threads should be positive");
+        }
+
+        this.wrapper = wrapper;
+        this.isOrderId = isOrderId;
+        shards = new DispatchShard[threads];
+        for (int i = 0; i < threads; i++) {
+            shards[i] = new DispatchShard("IbDispatch-" + i, wrapper, queueSize, onDrain);
+        }
+    }
+
+    public void start() {
+        for (DispatchShard shard : shards) {
+            shard.start();
+        }
+    }
+
+    public void close() {
+        for (DispatchShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * @return number of messages waiting for dispatch
+     */
+    public int getQueueSize() {
+        int result = 0;
+        for (DispatchShard shard : shards) {
+            result += shard.size();
+        }
+        return result;
+    }
+
+    private DispatchShard shard(int key) {
+        return shards[(key & Integer.MAX_VALUE) % shards.length];
+    }
+
+    private void submit(int key, Runnable task) {
+        DispatchShard shard = shard(key);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.TASK;
+        event.task = task;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void tickPrice(int tickerId, int field, double price, TickAttrib attrib) {
+        DispatchShard shard = shard(tickerId);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.TICK_PRICE;
+        event.tickerId = tickerId;
+        event.field = field;
+        event.value = price;
+        event.attrib = attrib;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void tickSize(int tickerId, int field, int size) {
+        DispatchShard shard = shard(tickerId);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.TICK_SIZE;
+        event.tickerId = tickerId;
+        event.field = field;
+        event.size = size;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void tickGeneric(int tickerId, int tickType, double value) {
+        DispatchShard shard = shard(tickerId);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.TICK_GENERIC;
+        event.tickerId = tickerId;
+        event.field = tickType;
+        event.value = value;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void tickString(int tickerId, int tickType, String value) {
+        DispatchShard shard = shard(tickerId);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.TICK_STRING;
+        event.tickerId = tickerId;
+        event.field = tickType;
+        event.text = value;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void updateMktDepth(int tickerId, int position, int operation, int side, double price, int size) {
+        DispatchShard shard = shard(tickerId);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.MARKET_DEPTH;
+        event.tickerId = tickerId;
+        event.position = position;
+        event.operation = operation;
+        event.side = side;
+        event.value = price;
+        event.size = size;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void updateMktDepthL2(
+        int tickerId,
+        int position,
+        String marketMaker,
+        int operation,
+        int side,
+        double price,
+        int size,
+        boolean isSmartDepth
+    ) {
+        DispatchShard shard = shard(tickerId);
+        long sequence = shard.sequence();
+        DispatchEvent event = shard.slot(sequence);
+        event.kind = DispatchEvent.Kind.MARKET_DEPTH_L2;
+        event.tickerId = tickerId;
+        event.position = position;
+        event.text = marketMaker;
+        event.operation = operation;
+        event.side = side;
+        event.value = price;
+        event.size = size;
+        event.isSmartDepth = isSmartDepth;
+        shard.publish(sequence);
+    }
+
+    @Override
+    public void tickOptionComputation(
+        int tickerId,
+        int field,
+        double impliedVol,
+        double delta,
+        double optPrice,
+        double pvDividend,
+        double gamma,
+        double vega,
+        double theta,
+        double undPrice
+    ) {
+        submit(tickerId, () -> wrapper.tickOptionComputation(tickerId,
+            field,
+            impliedVol,
+            delta,
+            optPrice,
+            pvDividend,
+            gamma,
+            vega,
+            theta,
+            undPrice
+        ));
+    }
+
+    @Override
+    public void tickEFP(
+        int tickerId,
+        int tickType,
+        double basisPoints,
+        String formattedBasisPoints,
+        double impliedFuture,
+        int holdDays,
+        String futureLastTradeDate,
+        double dividendImpact,
+        double dividendsToLastTradeDate
+    ) {
+        submit(tickerId, () -> wrapper.tickEFP(tickerId,
+            tickType,
+            basisPoints,
+            formattedBasisPoints,
+            impliedFuture,
+            holdDays,
+            futureLastTradeDate,
+            dividendImpact,
+            dividendsToLastTradeDate
+        ));
+    }
+
+    @Override
+    public void orderStatus(
+        int orderId,
+        String status,
+        double filled,
+        double remaining,
+        double avgFillPrice,
+        int permId,
+        int parentId,
+        double lastFillPrice,
+        int clientId,
+        String whyHeld,
+        double mktCapPrice
+    ) {
+        submit(COMMON_SHARD, () -> wrapper.orderStatus(orderId,
+            status,
+            filled,
+            remaining,
+            avgFillPrice,
+            permId,
+            parentId,
+            lastFillPrice,
+            clientId,
+            whyHeld,
+            mktCapPrice
+        ));
+    }
+
+    @Override
+    public void openOrder(int orderId, Contract contract, Order order, OrderState orderState) {
+        submit(COMMON_SHARD, () -> wrapper.openOrder(orderId, contract, order, orderState));
+    }
+
+    @Override
+    public void openOrderEnd() {
+        submit(COMMON_SHARD, wrapper::openOrderEnd);
+    }
+
+    @Override
+    public void updateAccountValue(String key, String value, String currency, String accountName) {
+        submit(COMMON_SHARD, () -> wrapper.updateAccountValue(key, value, currency, accountName));
+    }
+
+    @Override
+    public void updatePortfolio(
+        Contract contract,
+        double position,
+        double marketPrice,
+        double marketValue,
+        double averageCost,
+        double unrealizedPNL,
+        double realizedPNL,
+        String accountName
+    ) {
+        submit(COMMON_SHARD, () -> wrapper.updatePortfolio(contract,
+            position,
+            marketPrice,
+            marketValue,
+            averageCost,
+            unrealizedPNL,
+            realizedPNL,
+            accountName
+        ));
+    }
+
+    @Override
+    public void updateAccountTime(String timeStamp) {
+        submit(COMMON_SHARD, () -> wrapper.updateAccountTime(timeStamp));
+    }
+
+    @Override
+    public void accountDownloadEnd(String accountName) {
+        submit(COMMON_SHARD, () -> wrapper.accountDownloadEnd(accountName));
+    }
+
+    @Override
+    public void nextValidId(int orderId) {
+        wrapper.nextValidId(orderId);
+    }
+
+    @Override
+    public void contractDetails(int reqId, ContractDetails contractDetails) {
+        submit(reqId, () -> wrapper.contractDetails(reqId, contractDetails));
+    }
+
+    @Override
+    public void bondContractDetails(int reqId, ContractDetails contractDetails) {
+        submit(reqId, () -> wrapper.bondContractDetails(reqId, contractDetails));
+    }
+
+    @Override
+    public void contractDetailsEnd(int reqId) {
+        submit(reqId, () -> wrapper.contractDetailsEnd(reqId));
+    }
+
+    @Override
+    public void execDetails(int reqId, Contract contract, Execution execution) {
+        submit(COMMON_SHARD, () -> wrapper.execDetails(reqId, contract, execution));
+    }
+
+    @Override
+    public void execDetailsEnd(int reqId) {
+        submit(COMMON_SHARD, () -> wrapper.execDetailsEnd(reqId));
+    }
+
+    @Override
+    public void updateNewsBulletin(int msgId, int msgType, String message, String origExchange) {
+        submit(COMMON_SHARD, () -> wrapper.updateNewsBulletin(msgId, msgType, message, origExchange));
+    }
+
+    @Override
+    public void managedAccounts(String accountsList) {
+        wrapper.managedAccounts(accountsList);
+    }
+
+    @Override
+    public void receiveFA(int faDataType, String xml) {
+        submit(COMMON_SHARD, () -> wrapper.receiveFA(faDataType, xml));
+    }
+
+    @Override
+    public void historicalData(int reqId, Bar bar) {
+        submit(reqId, () -> wrapper.historicalData(reqId, bar));
+    }
+
+    @Override
+    public void scannerParameters(String xml) {
+        submit(COMMON_SHARD, () -> wrapper.scannerParameters(xml));
+    }
+
+    @Override
+    public void scannerData(
+        int reqId,
+        int rank,
+        ContractDetails contractDetails,
+        String distance,
+        String benchmark,
+        String projection,
+        String legsStr
+    ) {
+        submit(reqId, () -> wrapper.scannerData(reqId,
+            rank,
+            contractDetails,
+            distance,
+            benchmark,
+            projection,
+            legsStr
+        ));
+    }
+
+    @Override
+    public void scannerDataEnd(int reqId) {
+        submit(reqId, () -> wrapper.scannerDataEnd(reqId));
+    }
+
+    @Override
+    public void realtimeBar(
+        int reqId,
+        long time,
+        double open,
+        double high,
+        double low,
+        double close,
+        long volume,
+        double wap,
+        int count
+    ) {
+        submit(reqId, () -> wrapper.realtimeBar(reqId, time, open, high, low, close, volume, wap, count));
+    }
+
+    @Override
+    public void currentTime(long time) {
+        submit(COMMON_SHARD, () -> wrapper.currentTime(time));
+    }
+
+    @Override
+    public void fundamentalData(int reqId, String data) {
+        submit(reqId, () -> wrapper.fundamentalData(reqId, data));
+    }
+
+    @Override
+    public void deltaNeutralValidation(int reqId, DeltaNeutralContract deltaNeutralContract) {
+        submit(reqId, () -> wrapper.deltaNeutralValidation(reqId, deltaNeutralContract));
+    }
+
+    @Override
+    public void tickSnapshotEnd(int reqId) {
+        submit(reqId, () -> wrapper.tickSnapshotEnd(reqId));
+    }
+
+    @Override
+    public void marketDataType(int reqId, int marketDataType) {
+        submit(reqId, () -> wrapper.marketDataType(reqId, marketDataType));
+    }
+
+    @Override
+    public void commissionReport(CommissionReport commissionReport) {
+        submit(COMMON_SHARD, () -> wrapper.commissionReport(commissionReport));
+    }
+
+    @Override
+    public void position(String account, Contract contract, double pos, double avgCost) {
+        submit(COMMON_SHARD, () -> wrapper.position(account, contract, pos, avgCost));
+    }
+
+    @Override
+    public void positionEnd() {
+        submit(COMMON_SHARD, wrapper::positionEnd);
+    }
+
+    @Override
+    public void accountSummary(int reqId, String account, String tag, String value, String currency) {
+        submit(reqId, () -> wrapper.accountSummary(reqId, account, tag, value, currency));
+    }
+
+    @Override
+    public void accountSummaryEnd(int reqId) {
+        submit(reqId, () -> wrapper.accountSummaryEnd(reqId));
+    }
+
+    @Override
+    public void verifyMessageAPI(String apiData) {
+        submit(COMMON_SHARD, () -> wrapper.verifyMessageAPI(apiData));
+    }
+
+    @Override
+    public void verifyCompleted(boolean isSuccessful, String errorText) {
+        submit(COMMON_SHARD, () -> wrapper.verifyCompleted(isSuccessful, errorText));
+    }
+
+    @Override
+    public void verifyAndAuthMessageAPI(String apiData, String xyzChallenge) {
+        submit(COMMON_SHARD, () -> wrapper.verifyAndAuthMessageAPI(apiData, xyzChallenge));
+    }
+
+    @Override
+    public void verifyAndAuthCompleted(boolean isSuccessful, String errorText) {
+        submit(COMMON_SHARD, () -> wrapper.verifyAndAuthCompleted(isSuccessful, errorText));
+    }
+
+    @Override
+    public void displayGroupList(int reqId, String groups) {
+        submit(reqId, () -> wrapper.displayGroupList(reqId, groups));
+    }
+
+    @Override
+    public void displayGroupUpdated(int reqId, String contractInfo) {
+        submit(reqId, () -> wrapper.displayGroupUpdated(reqId, contractInfo));
+    }
+
+    @Override
+    public void error(Exception e) {
+        wrapper.error(e);
+    }
+
+    @Override
+    public void error(String str) {
+        wrapper.error(str);
+    }
+
+    @Override
+    public void error(int id, int errorCode, String errorMsg) {
+        // Errors are processed after messages of the same request. Order messages are processed by the common
+        // shard, so errors of orders go there too
+        int key = id < 0 || isOrderId.test(id) ? COMMON_SHARD : id;
+        submit(key, () -> wrapper.error(id, errorCode, errorMsg));
+    }
+
+    @Override
+    public void connectionClosed() {
+        wrapper.connectionClosed();
+    }
+
+    @Override
+    public void connectAck() {
+        wrapper.connectAck();
+    }
+
+    @Override
+    public void positionMulti(
+        int reqId,
+        String account,
+        String modelCode,
+        Contract contract,
+        double pos,
+        double avgCost
+    ) {
+        submit(reqId, () -> wrapper.positionMulti(reqId, account, modelCode, contract, pos, avgCost));
+    }
+
+    @Override
+    public void positionMultiEnd(int reqId) {
+        submit(reqId, () -> wrapper.positionMultiEnd(reqId));
+    }
+
+    @Override
+    public void accountUpdateMulti(
+        int reqId,
+        String account,
+        String modelCode,
+        String key,
+        String value,
+        String currency
+    ) {
+        submit(reqId, () -> wrapper.accountUpdateMulti(reqId, account, modelCode, key, value, currency));
+    }
+
+    @Override
+    public void accountUpdateMultiEnd(int reqId) {
+        submit(reqId, () -> wrapper.accountUpdateMultiEnd(reqId));
+    }
+
+    @Override
+    public void securityDefinitionOptionalParameter(
+        int reqId,
+        String exchange,
+        int underlyingConId,
+        String tradingClass,
+        String multiplier,
+        Set<String> expirations,
+        Set<Double> strikes
+    ) {
+        submit(reqId, () -> wrapper.securityDefinitionOptionalParameter(reqId,
+            exchange,
+            underlyingConId,
+            tradingClass,
+            multiplier,
+            expirations,
+            strikes
+        ));
+    }
+
+    @Override
+    public void securityDefinitionOptionalParameterEnd(int reqId) {
+        submit(reqId, () -> wrapper.securityDefinitionOptionalParameterEnd(reqId));
+    }
+
+    @Override
+    public void softDollarTiers(int reqId, SoftDollarTier[] tiers) {
+        submit(reqId, () -> wrapper.softDollarTiers(reqId, tiers));
+    }
+
+    @Override
+    public void familyCodes(FamilyCode[] familyCodes) {
+        submit(COMMON_SHARD, () -> wrapper.familyCodes(familyCodes));
+    }
+
+    @Override
+    public void symbolSamples(int reqId, ContractDescription[] contractDescriptions) {
+        submit(reqId, () -> wrapper.symbolSamples(reqId, contractDescriptions));
+    }
+
+    @Override
+    public void historicalDataEnd(int reqId, String startDateStr, String endDateStr) {
+        submit(reqId, () -> wrapper.historicalDataEnd(reqId, startDateStr, endDateStr));
+    }
+
+    @Override
+    public void mktDepthExchanges(DepthMktDataDescription[] depthMktDataDescriptions) {
+        submit(COMMON_SHARD, () -> wrapper.mktDepthExchanges(depthMktDataDescriptions));
+    }
+
+    @Override
+    public void tickNews(
+        int tickerId,
+        long timeStamp,
+        String providerCode,
+        String articleId,
+        String headline,
+        String extraData
+    ) {
+        submit(tickerId, () -> wrapper.tickNews(tickerId, timeStamp, providerCode, articleId, headline, extraData));
+    }
+
+    @Override
+    public void smartComponents(int reqId, Map<Integer, Map.Entry<String, Character>> theMap) {
+        submit(reqId, () -> wrapper.smartComponents(reqId, theMap));
+    }
+
+    @Override
+    public void tickReqParams(int tickerId, double minTick, String bboExchange, int snapshotPermissions) {
+        submit(tickerId, () -> wrapper.tickReqParams(tickerId, minTick, bboExchange, snapshotPermissions));
+    }
+
+    @Override
+    public void newsProviders(NewsProvider[] newsProviders) {
+        submit(COMMON_SHARD, () -> wrapper.newsProviders(newsProviders));
+    }
+
+    @Override
+    public void newsArticle(int requestId, int articleType, String articleText) {
+        submit(requestId, () -> wrapper.newsArticle(requestId, articleType, articleText));
+    }
+
+    @Override
+    public void historicalNews(int requestId, String time, String providerCode, String articleId, String headline) {
+        submit(requestId, () -> wrapper.historicalNews(requestId, time, providerCode, articleId, headline));
+    }
+
+    @Override
+    public void historicalNewsEnd(int requestId, boolean hasMore) {
+        submit(requestId, () -> wrapper.historicalNewsEnd(requestId, hasMore));
+    }
+
+    @Override
+    public void headTimestamp(int reqId, String headTimestamp) {
+        submit(reqId, () -> wrapper.headTimestamp(reqId, headTimestamp));
+    }
+
+    @Override
+    public void histogramData(int reqId, List<HistogramEntry> items) {
+        submit(reqId, () -> wrapper.histogramData(reqId, items));
+    }
+
+    @Override
+    public void historicalDataUpdate(int reqId, Bar bar) {
+        submit(reqId, () -> wrapper.historicalDataUpdate(reqId, bar));
+    }
+
+    @Override
+    public void rerouteMktDataReq(int reqId, int conId, String exchange) {
+        submit(reqId, () -> wrapper.rerouteMktDataReq(reqId, conId, exchange));
+    }
+
+    @Override
+    public void rerouteMktDepthReq(int reqId, int conId, String exchange) {
+        submit(reqId, () -> wrapper.rerouteMktDepthReq(reqId, conId, exchange));
+    }
+
+    @Override
+    public void marketRule(int marketRuleId, PriceIncrement[] priceIncrements) {
+        submit(COMMON_SHARD, () -> wrapper.marketRule(marketRuleId, priceIncrements));
+    }
+
+    @Override
+    public void pnl(int reqId, double dailyPnL, double unrealizedPnL, double realizedPnL) {
+        submit(reqId, () -> wrapper.pnl(reqId, dailyPnL, unrealizedPnL, realizedPnL));
+    }
+
+    @Override
+    public void pnlSingle(int reqId, int pos, double dailyPnL, double unrealizedPnL, double realizedPnL, double value) {
+        submit(reqId, () -> wrapper.pnlSingle(reqId, pos, dailyPnL, unrealizedPnL, realizedPnL, value));
+    }
+
+    @Override
+    public void historicalTicks(int reqId, List<HistoricalTick> ticks, boolean done) {
+        submit(reqId, () -> wrapper.historicalTicks(reqId, ticks, done));
+    }
+
+    @Override
+    public void historicalTicksBidAsk(int reqId, List<HistoricalTickBidAsk> ticks, boolean done) {
+        submit(reqId, () -> wrapper.historicalTicksBidAsk(reqId, ticks, done));
+    }
+
+    @Override
+    public void historicalTicksLast(int reqId, List<HistoricalTickLast> ticks, boolean done) {
+        submit(reqId, () -> wrapper.historicalTicksLast(reqId, ticks, done));
+    }
+
+    @Override
+    public void tickByTickAllLast(
+        int reqId,
+        int tickType,
+        long time,
+        double price,
+        int size,
+        TickAttribLast tickAttribLast,
+        String exchange,
+        String specialConditions
+    ) {
+        submit(reqId, () -> wrapper.tickByTickAllLast(reqId,
+            tickType,
+            time,
+            price,
+            size,
+            tickAttribLast,
+            exchange,
+            specialConditions
+        ));
+    }
+
+    @Override
+    public void tickByTickBidAsk(
+        int reqId,
+        long time,
+        double bidPrice,
+        double askPrice,
+        int bidSize,
+        int askSize,
+        TickAttribBidAsk tickAttribBidAsk
+    ) {
+        submit(reqId, () -> wrapper.tickByTickBidAsk(reqId,
+            time,
+            bidPrice,
+            askPrice,
+            bidSize,
+            askSize,
+            tickAttribBidAsk
+        ));
+    }
+
+    @Override
+    public void tickByTickMidPoint(int reqId, long time, double midPoint) {
+        submit(reqId, () -> wrapper.tickByTickMidPoint(reqId, time, midPoint));
+    }
+
+    @Override
+    public void orderBound(long orderId, int apiClientId, int apiOrderId) {
+        submit(COMMON_SHARD, () -> wrapper.orderBound(orderId, apiClientId, apiOrderId));
+    }
+
+    @Override
+    public void completedOrder(Contract contract, Order order, OrderState orderState) {
+        submit(COMMON_SHARD, () -> wrapper.completedOrder(contract, order, orderState));
+    }
+
+    @Override
+    public void completedOrdersEnd() {
+        submit(COMMON_SHARD, wrapper::completedOrdersEnd);
+    }
+}
@@ -0,0 +1,94 @@
+package reactor.impl.history;
+
+import reactor.IbClient;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a time range into historical data requests of the max size TWS serves for the bar size.
+ */
+public class BackfillPlanner {
+
+    private static final long SECONDS_PER_DAY = Duration.ofDays(1).getSeconds();
+
+    /**
+     * @return chunks in time order
+     */
+    public static List<Chunk> plan(LocalDateTime from, LocalDateTime to, IbClient.BarSize barSize) {
+        Duration length = chunkLength(barSize);
+
+        List<Chunk> result = new ArrayList<>();
+        LocalDateTime start = from;
+        while (start.isBefore(to)) {
+            LocalDateTime end = start.plus(length);
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            result.add(new Chunk(start, end));
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Max duration of a single request, according to TWS historical data limitations.
+     */
+    static Duration chunkLength(IbClient.BarSize barSize) {
+        return switch (barSize) {
+            case SEC_1 -> Duration.ofMinutes(30);
+            case SEC_5 -> Duration.ofHours(1);
+            case SEC_10, SEC_15 -> Duration.ofHours(4);
+            case SEC_30 -> Duration.ofHours(8);
+            case MIN_1 -> Duration.ofDays(1);
+            case MIN_2, MIN_3 -> Duration.ofDays(2);
+            case MIN_5, MIN_10, MIN_15, MIN_20 -> Duration.ofDays(7);
+            case MIN_30, HOUR_1, HOUR_2, HOUR_3, HOUR_4, HOUR_8 -> Duration.ofDays(30);
+            case DAY_1, WEEK_1, MONTH_1 -> Duration.ofDays(365);
+        };
+    }
+
+    /**
+     * Time range of a single request.
+     */
+    public static class Chunk {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Chunk(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        /**
+         * @return request duration, covering the chunk. Durations longer than a day are requested in days.
+         */
+        public int getDuration() {
+            long seconds = Duration.between(start, end).getSeconds();
+            if (seconds <= SECONDS_PER_DAY) {
+                return (int) seconds;
+            }
+            return (int) ((seconds + SECONDS_PER_DAY - 1) / SECONDS_PER_DAY);
+        }
+
+        public IbClient.DurationUnit getDurationUnit() {
+            long seconds = Duration.between(start, end).getSeconds();
+            return seconds <= SECONDS_PER_DAY ? IbClient.DurationUnit.Second : IbClient.DurationUnit.Day;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s, %s)", start, end);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package reactor.impl.history;
+
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.IbClient;
+import reactor.types.IbBar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * On-disk store of historical bars.
+ *
+ * <p>Every series, identified by a {@link Key}, is kept in files:
+ * <ul>
+ *     <li>{@code .bars} - fixed size records sorted by time, memory-mapped for reading;</li>
+ *     <li>{@code .N.seg} - records of a range written since the last compaction, replacing bars of the range in
+ *     {@code .bars} and in older segments;</li>
+ *     <li>{@code .ranges} - time ranges which have been fetched from TWS, so ranges without bars (e.g. weekends)
+ *     are not requested again.</li>
+ * </ul>
+ * Times are TWS local times, stored as seconds of {@link LocalDateTime#toEpochSecond} in UTC. A write only
+ * creates the segment of its range, segments are merged into {@code .bars} once there are enough of them. Files
+ * are created atomically, so a crash never leaves a partially written series.
+ */
+public class BarStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BarStore.class);
+
+    private static final int MAGIC = 0x49424253; // IBBS
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int SEGMENT_HEADER_SIZE = 24;
+    private static final int RECORD_SIZE = 64;
+    // Segments written before the series is compacted into its bars file
+    private static final int MAX_SEGMENTS = 32;
+
+    private final Path directory;
+    private final Map<Key, Series> series = new ConcurrentHashMap<>();
+
+    public BarStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create bar store directory " + directory, e);
+        }
+    }
+
+    /**
+     * @return parts of the range which have not been fetched yet, in time order
+     */
+    public List<Range> gaps(Key key, LocalDateTime from, LocalDateTime to) {
+        return series(key).gaps(seconds(from), seconds(to));
+    }
+
+    /**
+     * Stores bars of the range fetched from TWS. Bars outside the range are ignored, stored bars within the range
+     * are replaced.
+     */
+    public void write(Key key, LocalDateTime from, LocalDateTime to, List<IbBar> bars) {
+        series(key).write(seconds(from), seconds(to), bars);
+    }
+
+    /**
+     * @return stored bars within [from, to) in time order
+     */
+    public List<IbBar> read(Key key, LocalDateTime from, LocalDateTime to) {
+        return series(key).read(seconds(from), seconds(to));
+    }
+
+    private Series series(Key key) {
+        return series.computeIfAbsent(key, k -> new Series(directory.resolve(k.fileName())));
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    @Data
+    public static class Key {
+        private final int conid;
+        private final IbClient.BarSize barSize;
+        private final IbClient.Type type;
+        private final IbClient.TradingHours tradingHours;
+
+        String fileName() {
+            return String.format("%d-%s-%s-%s", conid, barSize.name(), type.name(), tradingHours.name());
+        }
+    }
+
+    /**
+     * Time range [from, to).
+     */
+    @Data
+    public static class Range {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+    }
+
+    private static class Series {
+        private final Path directory;
+        private final String name;
+        private final Path barsFile;
+        private final Path rangesFile;
+
+        // Compacted bars, the segments written since the compaction are applied over them in order
+        private Segment base;
+        private List<Segment> segments;
+        private long nextSegment;
+        // Fetched ranges: start second -> end second, never overlapping or adjacent
+        private TreeMap<Long, Long> ranges;
+
+        Series(Path base) {
+            directory = base.getParent();
+            name = base.getFileName().toString();
+            barsFile = base.resolveSibling(name + ".bars");
+            rangesFile = base.resolveSibling(name + ".ranges");
+        }
+
+        synchronized List<Range> gaps(long from, long to) {
+            load();
+
+            List<Range> result = new ArrayList<>();
+            long start = from;
+            Map.Entry<Long, Long> covering = ranges.floorEntry(from);
+            if (covering != null && covering.getValue() > start) {
+                start = covering.getValue();
+            }
+            for (Map.Entry<Long, Long> range : ranges.subMap(from, false, to, false).entrySet()) {
+                if (range.getKey() > start) {
+                    result.add(new Range(time(start), time(range.getKey())));
+                }
+                start = Math.max(start, range.getValue());
+            }
+            if (start < to) {
+                result.add(new Range(time(start), time(to)));
+            }
+            return result;
+        }
+
+        synchronized void write(long from, long to, List<IbBar> newBars) {
+            if (from >= to) {
+                return;
+            }
+            load();
+
+            // Requests of a range can overlap, the latest bar of a time wins
+            TreeMap<Long, IbBar> inRange = new TreeMap<>();
+            for (IbBar bar : newBars) {
+                long time = seconds(bar.getTime());
+                if (time >= from && time < to) {
+                    inRange.put(time, bar);
+                }
+            }
+
+            // Only the fetched range is written, as a new segment replacing stored bars of the range on read
+            ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_HEADER_SIZE + inRange.size() * RECORD_SIZE);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(from).putLong(to);
+            for (IbBar bar : inRange.values()) {
+                putRecord(bar, buffer);
+            }
+            buffer.flip();
+
+            Path segmentFile = directory.resolve(name + "." + nextSegment + ".seg");
+            ByteBuffer rangeBuffer = ByteBuffer.allocate(16).putLong(from).putLong(to);
+            rangeBuffer.flip();
+            try {
+                replace(segmentFile, buffer);
+                append(rangesFile, rangeBuffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't write bars to " + segmentFile, e);
+            }
+            nextSegment++;
+            segments.add(Segment.map(segmentFile, SEGMENT_HEADER_SIZE));
+            addRange(from, to);
+
+            if (segments.size() >= MAX_SEGMENTS) {
+                compact();
+            }
+        }
+
+        synchronized List<IbBar> read(long from, long to) {
+            load();
+
+            if (segments.isEmpty()) {
+                List<IbBar> result = new ArrayList<>();
+                if (base != null) {
+                    base.read(from, to, bar -> result.add(bar));
+                }
+                return result;
+            }
+
+            TreeMap<Long, IbBar> merged = new TreeMap<>();
+            if (base != null) {
+                base.read(from, to, bar -> merged.put(seconds(bar.getTime()), bar));
+            }
+            for (Segment segment : segments) {
+                long start = Math.max(from, segment.from);
+                long end = Math.min(to, segment.to);
+                if (start < end) {
+                    merged.subMap(start, end).clear();
+                    segment.read(start, end, bar -> merged.put(seconds(bar.getTime()), bar));
+                }
+            }
+            return new ArrayList<>(merged.values());
+        }
+
+        private void load() {
+            if (ranges != null) {
+                return;
+            }
+
+            ranges = new TreeMap<>();
+            segments = new ArrayList<>();
+            try {
+                if (Files.exists(rangesFile)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(rangesFile));
+                    while (buffer.remaining() >= 16) {
+                        addRange(buffer.getLong(), buffer.getLong());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't read " + rangesFile, e);
+            }
+
+            base = Files.exists(barsFile) ? Segment.map(barsFile, HEADER_SIZE) : null;
+            boolean valid = base == null || base.isValid();
+
+            TreeMap<Long, Path> segmentFiles = new TreeMap<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + ".*.seg")) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    String number = fileName.substring(name.length() + 1, fileName.length() - ".seg".length());
+                    try {
+                        segmentFiles.put(Long.parseLong(number), file);
+                    } catch (NumberFormatException e) {
+                        log.warn("Unknown segment {} is ignored", file);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't list segments of " + barsFile, e);
+            }
+            for (Map.Entry<Long, Path> file : segmentFiles.entrySet()) {
+                Segment segment = Segment.map(file.getValue(), SEGMENT_HEADER_SIZE);
+                valid &= segment.isValid();
+                segments.add(segment);
+                nextSegment = file.getKey() + 1;
+            }
+
+            if (!valid) {
+                log.warn("Unknown format of {}, the series is fetched again", barsFile);
+                ranges.clear();
+                base = null;
+                segments.clear();
+            }
+        }
+
+        /**
+         * Merges the segments into the bars file, so reads don't have to look through all of them.
+         */
+        private void compact() {
+            List<IbBar> merged = read(Long.MIN_VALUE, Long.MAX_VALUE);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + merged.size() * RECORD_SIZE);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+            for (IbBar bar : merged) {
+                putRecord(bar, buffer);
+            }
+            buffer.flip();
+
+            ByteBuffer rangesBuffer = ByteBuffer.allocate(ranges.size() * 16);
+            ranges.forEach((start, end) -> rangesBuffer.putLong(start).putLong(end));
+            rangesBuffer.flip();
+
+            try {
+                // Segments left by a crash here are applied over the compacted bars again, which changes nothing
+                replace(barsFile, buffer);
+                replace(rangesFile, rangesBuffer);
+                for (Segment segment : segments) {
+                    Files.deleteIfExists(segment.file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't compact " + barsFile, e);
+            }
+            base = Segment.map(barsFile, HEADER_SIZE);
+            segments.clear();
+        }
+
+        private void addRange(long from, long to) {
+            Map.Entry<Long, Long> before = ranges.floorEntry(from);
+            if (before != null && before.getValue() >= from) {
+                from = before.getKey();
+                to = Math.max(to, before.getValue());
+            }
+            Map.Entry<Long, Long> after;
+            while ((after = ranges.ceilingEntry(from)) != null && after.getKey() <= to) {
+                to = Math.max(to, after.getValue());
+                ranges.remove(after.getKey());
+            }
+            ranges.put(from, to);
+        }
+
+        private static void putRecord(IbBar bar, ByteBuffer target) {
+            target.putLong(seconds(bar.getTime()))
+                    .putDouble(bar.getOpen().doubleValue())
+                    .putDouble(bar.getHigh().doubleValue())
+                    .putDouble(bar.getLow().doubleValue())
+                    .putDouble(bar.getClose().doubleValue())
+                    .putLong(bar.getVolume())
+                    .putInt(bar.getCount())
+                    .putDouble(bar.getWap().doubleValue())
+                    .putInt(0);
+        }
+
+        private static void replace(Path file, ByteBuffer content) throws IOException {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private static void append(Path file, ByteBuffer content) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Memory-mapped file of records sorted by time, covering the range [from, to) of the series.
+     */
+    private static class Segment {
+        private final Path file;
+        private final MappedByteBuffer records;
+        private final int headerSize;
+        private final int count;
+        private final long from;
+        private final long to;
+
+        private Segment(Path file, MappedByteBuffer records, int headerSize, long from, long to) {
+            this.file = file;
+            this.records = records;
+            this.headerSize = headerSize;
+            this.count = records != null ? (records.limit() - headerSize) / RECORD_SIZE : 0;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @param headerSize {@link #HEADER_SIZE} for the compacted bars covering all time, or
+         *                   {@link #SEGMENT_HEADER_SIZE} for a segment which keeps its range in the header
+         */
+        static Segment map(Path file, int headerSize) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < headerSize
+                        || buffer.getInt(0) != MAGIC
+                        || buffer.getInt(4) != FORMAT_VERSION) {
+                    return new Segment(file, null, headerSize, 0, 0);
+                }
+                return headerSize == SEGMENT_HEADER_SIZE
+                        ? new Segment(file, buffer, headerSize, buffer.getLong(8), buffer.getLong(16))
+                        : new Segment(file, buffer, headerSize, Long.MIN_VALUE, Long.MAX_VALUE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't read " + file, e);
+            }
+        }
+
+        boolean isValid() {
+            return records != null;
+        }
+
+        /**
+         * Passes the bars within [from, to) to the consumer in time order.
+         */
+        void read(long from, long to, Consumer<IbBar> consumer) {
+            int end = lowerBound(to);
+            for (int i = lowerBound(from); i < end; i++) {
+                consumer.accept(getRecord(i));
+            }
+        }
+
+        /**
+         * @return index of the first bar at or after the time
+         */
+        private int lowerBound(long time) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (records.getLong(headerSize + middle * RECORD_SIZE) < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private IbBar getRecord(int index) {
+            int offset = headerSize + index * RECORD_SIZE;
+            return new IbBar(time(records.getLong(offset)),
+                    BigDecimal.valueOf(records.getDouble(offset + 8)),
+                    BigDecimal.valueOf(records.getDouble(offset + 16)),
+                    BigDecimal.valueOf(records.getDouble(offset + 24)),
+                    BigDecimal.valueOf(records.getDouble(offset + 32)),
+                    records.getLong(offset + 40),
+                    records.getInt(offset + 48),
+                    BigDecimal.valueOf(records.getDouble(offset + 52)));
+        }
+    }
+}
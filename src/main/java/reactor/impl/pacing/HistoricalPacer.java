@@ -0,0 +1,139 @@
+package reactor.impl.pacing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.IbExceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Delays historical data requests to follow TWS pacing rules.
+ *
+ * <p>TWS rejects historical requests with a pacing violation, if:
+ * <ul>
+ *     <li>more than 60 requests are made within 10 minutes;</li>
+ *     <li>an identical request is made within 15 seconds;</li>
+ *     <li>six or more requests for the same contract, exchange and tick type are made within 2 seconds.</li>
+ * </ul>
+ * Requests are sent only when all rules allow it. Violations reported by TWS anyway are retried with backoff.
+ *
+ * @see <a href="https://interactivebrokers.github.io/tws-api/historical_limitations.html">
+ *      TWS API: Historical Data Limitations</a>
+ */
+public class HistoricalPacer {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoricalPacer.class);
+
+    private static final int MAX_REQUESTS = 60;
+    private static final long REQUESTS_WINDOW_NS = TimeUnit.MINUTES.toNanos(10);
+    private static final long IDENTICAL_WINDOW_NS = TimeUnit.SECONDS.toNanos(15);
+    private static final int MAX_CONTRACT_REQUESTS = 5;
+    private static final long CONTRACT_WINDOW_NS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final int MAX_RETRIES = 5;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(15);
+
+    private final ArrayDeque<Long> requestTimes = new ArrayDeque<>();
+    private final Map<String, Long> identicalTimes = new HashMap<>();
+    private final Map<String, ArrayDeque<Long>> contractTimes = new HashMap<>();
+    private final ConcurrentHashMap<String, Flux<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Sends the request when pacing rules allow it. Subscribers of an identical request which is still in flight
+     * join it and receive all its data.
+     *
+     * @param contractKey Contract, exchange and tick type of the request
+     * @param requestKey  All parameters of the request, identical requests should have equal keys
+     * @param request     Request supplier, called every time the request is sent
+     * @return paced request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> submit(String contractKey, String requestKey, Supplier<Flux<T>> request) {
+        return Flux.defer(() -> (Flux<T>) inFlight.computeIfAbsent(requestKey, key -> {
+            AtomicReference<Flux<T>> self = new AtomicReference<>();
+            Flux<T> shared = paced(contractKey, requestKey, request)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .replay()
+                .refCount();
+            self.set(shared);
+            return shared;
+        }));
+    }
+
+    /**
+     * Sends the request when pacing rules allow it, without de-duplication. Suits subscriptions, which never
+     * complete.
+     */
+    public <T> Flux<T> paced(String contractKey, String requestKey, Supplier<Flux<T>> request) {
+        return acquire(contractKey, requestKey)
+            .thenMany(Flux.defer(request))
+            .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
+                .filter(e -> e instanceof IbExceptions.PacingViolationError)
+                .doBeforeRetry(signal -> log.warn("Pacing violation of {}, retry #{}",
+                    requestKey,
+                    signal.totalRetries() + 1
+                ))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<Void> acquire(String contractKey, String requestKey) {
+        return Mono.defer(() -> {
+            long delay = tryAcquire(contractKey, requestKey, System.nanoTime());
+            if (delay <= 0) {
+                return Mono.empty();
+            }
+
+            log.debug("Historical request {} is delayed by {} ms", requestKey, TimeUnit.NANOSECONDS.toMillis(delay));
+            return Mono.delay(Duration.ofNanos(delay)).then(acquire(contractKey, requestKey));
+        });
+    }
+
+    /**
+     * Registers the request, if all rules allow to send it now.
+     *
+     * @return 0 if the request can be sent, otherwise nanoseconds to wait before the next attempt
+     */
+    private synchronized long tryAcquire(String contractKey, String requestKey, long now) {
+        expire(requestTimes, now - REQUESTS_WINDOW_NS);
+        identicalTimes.values().removeIf(time -> time <= now - IDENTICAL_WINDOW_NS);
+        ArrayDeque<Long> contractWindow = contractTimes.computeIfAbsent(contractKey, key -> new ArrayDeque<>());
+        expire(contractWindow, now - CONTRACT_WINDOW_NS);
+        contractTimes.values().removeIf(times -> times.isEmpty() && times != contractWindow);
+
+        long delay = 0;
+        if (requestTimes.size() >= MAX_REQUESTS) {
+            delay = Math.max(delay, requestTimes.peekFirst() + REQUESTS_WINDOW_NS - now);
+        }
+        Long identicalTime = identicalTimes.get(requestKey);
+        if (identicalTime != null) {
+            delay = Math.max(delay, identicalTime + IDENTICAL_WINDOW_NS - now);
+        }
+        if (contractWindow.size() >= MAX_CONTRACT_REQUESTS) {
+            delay = Math.max(delay, contractWindow.peekFirst() + CONTRACT_WINDOW_NS - now);
+        }
+        if (delay > 0) {
+            return delay;
+        }
+
+        requestTimes.addLast(now);
+        identicalTimes.put(requestKey, now);
+        contractWindow.addLast(now);
+        return 0;
+    }
+
+    private static void expire(ArrayDeque<Long> times, long threshold) {
+        while (!times.isEmpty() && times.peekFirst() <= threshold) {
+            times.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package reactor.impl.pacing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.types.IbOutboundMetrics;
+import reactor.types.IbOutboundMetrics.Lane;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends messages to TWS from a single thread, not faster than TWS allows.
+ *
+ * <p>TWS disconnects clients which send more than ~50 messages per second, so send times of the latest messages
+ * are kept, and a message is sent only if no more than the max rate has been sent within the last second, whatever
+ * window is taken. Bursts are also smoothed by a token bucket of a fraction of the rate. Queued messages are sent
+ * by priority of their lanes: order placement and cancellation always go before market data and historical
+ * requests. Messages of the same lane are sent in the submission order.
+ */
+public class OutboundScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundScheduler.class);
+
+    private static final long SECOND_NS = TimeUnit.SECONDS.toNanos(1);
+    // Max burst is this fraction of the rate
+    private static final int BURST_FRACTION = 10;
+
+    private static final Lane[] LANES = Lane.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<Task>[] queues = new ArrayDeque[LANES.length];
+    private final long[] sentCounts = new long[LANES.length];
+    private final long[] totalWaits = new long[LANES.length];
+    private final long[] maxWaits = new long[LANES.length];
+
+    // Send times of the latest messages, one per message allowed within a second
+    private final long[] sendTimes;
+    private int sendIndex;
+
+    private final double capacity;
+    private final long nanosPerToken;
+    private double tokens;
+    private long refillTime;
+
+    private final Thread thread = new Thread(this::run);
+
+    /**
+     * @param messagesPerSecond Max number of messages within any second
+     */
+    public OutboundScheduler(int messagesPerSecond) {
+        if (messagesPerSecond <= 0) {
+            throw new IllegalArgumentException("Message rate should be positive");
+        }
+
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+        refillTime = System.nanoTime();
+        sendTimes = new long[messagesPerSecond];
+        Arrays.fill(sendTimes, refillTime - SECOND_NS);
+        capacity = Math.max(1, messagesPerSecond / BURST_FRACTION);
+        nanosPerToken = SECOND_NS / messagesPerSecond;
+        tokens = capacity;
+
+        thread.setName("IbOutbound");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void submit(Lane lane, Runnable action) {
+        lock.lock();
+        try {
+            queues[lane.ordinal()].add(new Task(action, System.nanoTime()));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public IbOutboundMetrics getMetrics() {
+        Map<Lane, Integer> queueSizes = new EnumMap<>(Lane.class);
+        Map<Lane, Long> sent = new EnumMap<>(Lane.class);
+        Map<Lane, Duration> averageWaits = new EnumMap<>(Lane.class);
+        Map<Lane, Duration> maxWaitDurations = new EnumMap<>(Lane.class);
+
+        lock.lock();
+        try {
+            for (Lane lane : LANES) {
+                int i = lane.ordinal();
+                queueSizes.put(lane, queues[i].size());
+                sent.put(lane, sentCounts[i]);
+                averageWaits.put(lane, Duration.ofNanos(sentCounts[i] > 0 ? totalWaits[i] / sentCounts[i] : 0));
+                maxWaitDurations.put(lane, Duration.ofNanos(maxWaits[i]));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return new IbOutboundMetrics(queueSizes, sent, averageWaits, maxWaitDurations);
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                awaitTask();
+                acquireToken();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            Task task = poll();
+            try {
+                task.action.run();
+            } catch (Exception e) {
+                log.error("Error sending message to TWS", e);
+            } finally {
+                // Time after the message is written, so the window is never shorter than a second on the wire
+                sendTimes[sendIndex] = System.nanoTime();
+                sendIndex = (sendIndex + 1) % sendTimes.length;
+            }
+        }
+
+        log.debug("Outbound scheduler is stopped");
+    }
+
+    private void awaitTask() throws InterruptedException {
+        lock.lock();
+        try {
+            while (isEmpty()) {
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquireToken() throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (double) (now - refillTime) / nanosPerToken);
+            refillTime = now;
+
+            // The oldest of the latest messages should leave the one second window
+            long windowWait = sendTimes[sendIndex] + SECOND_NS - now;
+            if (tokens >= 1 && windowWait <= 0) {
+                tokens -= 1;
+                return;
+            }
+
+            long tokenWait = tokens >= 1 ? 0 : (long) ((1 - tokens) * nanosPerToken);
+            LockSupport.parkNanos(this, Math.max(tokenWait, windowWait));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Takes a task of the highest priority lane, so a task submitted while waiting for a token can overtake
+     * tasks of lower priority.
+     */
+    private Task poll() {
+        lock.lock();
+        try {
+            for (int i = 0; i < queues.length; i++) {
+                Task task = queues[i].poll();
+                if (task != null) {
+                    long wait = System.nanoTime() - task.submitTime;
+                    sentCounts[i]++;
+                    totalWaits[i] += wait;
+                    maxWaits[i] = Math.max(maxWaits[i], wait);
+                    return task;
+                }
+            }
+            throw new IllegalStateException("Outbound queue is empty");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isEmpty() {
+        for (ArrayDeque<Task> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Task {
+        private final Runnable action;
+        private final long submitTime;
+
+        Task(Runnable action, long submitTime) {
+            this.action = action;
+            this.submitTime = submitTime;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package reactor.impl.request;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.impl.utils.IntTable;
+import reactor.types.IbExecutionReport;
+import reactor.types.IbOrderStatus;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Routes order statuses and fills to subscribers of the order.
+ *
+ * <p>Subscribers are kept in a table keyed by order ID, so an event is delivered only to subscribers of its
+ * order, and the cost of an event doesn't depend on the number of subscribed orders.
+ */
+public class OrderRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderRouter.class);
+
+    private final IntTable<Route> routes = new IntTable<>();
+    private final CopyOnWriteArrayList<FluxSink<IbOrderStatus>> allStatuses = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param current Supplier of the current status, which is emitted first. A status received concurrently with
+     *                the subscription can be emitted twice.
+     * @return statuses of the order, completes after a filled or cancelled status
+     */
+    public Flux<IbOrderStatus> statuses(int orderId, Supplier<IbOrderStatus> current) {
+        return Flux.create(sink -> {
+            Route route = acquire(orderId);
+            sink.onDispose(() -> {
+                route.statuses.remove(sink);
+                release(orderId, route);
+            });
+
+            synchronized (route) {
+                route.statuses.add(sink);
+                IbOrderStatus status = current.get();
+                if (status != null) {
+                    sink.next(status);
+                    if (isFinal(status)) {
+                        sink.complete();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return statuses of all orders. Never completes.
+     */
+    public Flux<IbOrderStatus> statuses() {
+        return Flux.create(sink -> {
+            allStatuses.add(sink);
+            sink.onDispose(() -> allStatuses.remove(sink));
+        });
+    }
+
+    /**
+     * @return executions of the order with their commission reports. Never completes.
+     */
+    public Flux<IbExecutionReport> fills(int orderId) {
+        return Flux.create(sink -> {
+            Route route = acquire(orderId);
+            route.fills.add(sink);
+            sink.onDispose(() -> {
+                route.fills.remove(sink);
+                release(orderId, route);
+            });
+        });
+    }
+
+    public void onStatus(IbOrderStatus status) {
+        for (FluxSink<IbOrderStatus> sink : allStatuses) {
+            sink.next(status);
+        }
+
+        Route route = routes.get(status.getOrderId());
+        if (route == null) {
+            return;
+        }
+
+        boolean terminal = isFinal(status);
+        synchronized (route) {
+            for (FluxSink<IbOrderStatus> sink : route.statuses) {
+                sink.next(status);
+                if (terminal) {
+                    sink.complete();
+                }
+            }
+        }
+    }
+
+    public void onFill(int orderId, IbExecutionReport report) {
+        Route route = routes.get(orderId);
+        if (route == null) {
+            return;
+        }
+
+        for (FluxSink<IbExecutionReport> sink : route.fills) {
+            sink.next(report);
+        }
+    }
+
+    private static boolean isFinal(IbOrderStatus status) {
+        return status.isFilled() || status.isCanceled();
+    }
+
+    private synchronized Route acquire(int orderId) {
+        Route route = routes.get(orderId);
+        if (route == null) {
+            route = new Route();
+            routes.put(orderId, route);
+        }
+        route.subscribers++;
+        return route;
+    }
+
+    private synchronized void release(int orderId, Route route) {
+        if (--route.subscribers == 0) {
+            routes.remove(orderId, route);
+            log.trace("No more subscribers of order {}", orderId);
+        }
+    }
+
+    private static class Route {
+        private final CopyOnWriteArrayList<FluxSink<IbOrderStatus>> statuses = new CopyOnWriteArrayList<>();
+        private final CopyOnWriteArrayList<FluxSink<IbExecutionReport>> fills = new CopyOnWriteArrayList<>();
+        // Guarded by the router
+        private int subscribers;
+    }
+}
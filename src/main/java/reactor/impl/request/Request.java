@@ -15,6 +15,8 @@ class Request<T> {
     private final Consumer<Integer> registrationFn;
     private final Consumer<Integer> unregistrationFn;
     private final Object userData;
+    // Accessed only by the outbound scheduler thread, except of the shutdown
+    private boolean registered;
 
     @Override
     public String toString() {
@@ -43,6 +45,11 @@ class Request<T> {
     }
 
     void unregister() {
+        if (!registered) {
+            log.debug("Request {} has been disposed before registration", this);
+            return;
+        }
+
         try {
             if (unregistrationFn != null) {
                 unregistrationFn.accept(key.getId());
@@ -77,13 +84,22 @@ class Request<T> {
         return userData;
     }
 
+    /**
+     * Sends the request, unless it has been disposed while waiting to be sent.
+     */
     void register() {
-        register(key.getId());
-    }
+        if (emitter.isCancelled()) {
+            return;
+        }
 
-    private void register(Integer id) {
-        if (registrationFn != null) {
-            registrationFn.accept(id);
+        try {
+            if (registrationFn != null) {
+                registrationFn.accept(key.getId());
+            }
+            registered = true;
+        } catch (Exception e) {
+            log.error("Error register request {}: {}", this, e.getMessage(), e);
+            emitter.error(e);
         }
     }
 }
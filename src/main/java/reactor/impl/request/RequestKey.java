@@ -35,7 +35,8 @@ public class RequestKey {
 
     @Override
     public final int hashCode() {
-        return 0;
+        // Type is not hashed, since `equals` treats the null type as a wildcard
+        return Objects.hashCode(id);
     }
 
     @Override
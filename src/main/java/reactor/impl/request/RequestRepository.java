@@ -6,10 +6,14 @@ import reactor.IbClient;
 import reactor.IbExceptions;
 import reactor.core.publisher.Flux;
 import reactor.impl.IdGenerator;
+import reactor.impl.pacing.OutboundScheduler;
+import reactor.impl.utils.IntTable;
 
-import java.util.Map;
+import reactor.types.IbOutboundMetrics.Lane;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 public class RequestRepository implements AutoCloseable {
@@ -17,19 +21,35 @@ public class RequestRepository implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(RequestRepository.class);
     private final IbClient client;
     private final IdGenerator idGenerator;
+    private final OutboundScheduler outbound;
+
+    // Requests without ID (like order status events) are stored under this key
+    private static final int NO_ID = Integer.MIN_VALUE;
 
-    @SuppressWarnings("rawtypes")
-    private final Map<RequestKey, Request> requests = new ConcurrentHashMap<>();
+    // Dispatch index: one primitive int-keyed table per request type, indexed by type ordinal
+    private final IntTable<Request<?>>[] requests;
+    // Secondary index for lookups by request ID only, when TWS doesn't tell the request type (errors etc.)
+    private final IntTable<Request<?>> requestsById = new IntTable<>();
 
-    public RequestRepository(IbClient client, IdGenerator idGenerator) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RequestRepository(IbClient client, IdGenerator idGenerator, OutboundScheduler outbound) {
         this.client = client;
         this.idGenerator = idGenerator;
+        this.outbound = outbound;
+
+        requests = new IntTable[Type.values().length];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new IntTable<>();
+        }
     }
 
     @Override
     public final void close() {
-        requests.values().forEach(Request::unregister);
-        requests.clear();
+        for (IntTable<Request<?>> table : requests) {
+            table.forEach(Request::unregister);
+            table.clear();
+        }
+        requestsById.clear();
         log.debug("RequestRepository is closed");
     }
 
@@ -41,6 +61,22 @@ public class RequestRepository implements AutoCloseable {
         get(type, reqId, shouldExists).ifPresent(request -> request.onNext(data));
     }
 
+    /**
+     * Allocation-free variant of {@link #onNext(Type, Integer, Object, Boolean)} for high-rate events like ticks.
+     */
+    public final <T> void onNext(Type type, int reqId, T data, boolean shouldExists) {
+        @SuppressWarnings("unchecked") Request<T> request = (Request<T>) requests[type.ordinal()].get(reqId);
+        if (request == null) {
+            if (shouldExists) {
+                log.error("Cannot find request '{}' id={}", type, reqId);
+            } else if (log.isTraceEnabled()) {
+                log.trace("Cannot find request '{}' id={}", type, reqId);
+            }
+            return;
+        }
+        request.onNext(data);
+    }
+
     public final void onError(Type type, Integer reqId, Throwable throwable, Boolean shouldExists) {
         get(type, reqId, shouldExists).ifPresent(request -> request.onError(throwable));
     }
@@ -70,13 +106,16 @@ public class RequestRepository implements AutoCloseable {
         });
     }
 
+    public final boolean hasRequest(Type type, int reqId) {
+        return requests[type.ordinal()].containsKey(reqId);
+    }
+
     public final Object getUserData(Type type, int reqId) {
         return get(type, reqId, true).map(Request::getUserData).orElse(null);
     }
 
     private <T> Optional<Request<T>> get(Type type, Integer reqId, Boolean shouldExists) {
-        @SuppressWarnings("unchecked") Request<T> request =
-            requests.get(new RequestKey(type, reqId));
+        @SuppressWarnings("unchecked") Request<T> request = (Request<T>) find(type, reqId);
         if (request == null) {
             if (shouldExists) {
                 log.error("Cannot find request '{}' id={}", type, reqId);
@@ -87,39 +126,95 @@ public class RequestRepository implements AutoCloseable {
         return Optional.ofNullable(request);
     }
 
-    private void remove(RequestKey key) {
-        Request<?> prev = requests.remove(key);
-        if (prev == null) {
+    private Request<?> find(Type type, Integer reqId) {
+        if (type == null) {
+            return reqId != null ? requestsById.get(reqId) : null;
+        }
+        return requests[type.ordinal()].get(toKey(reqId));
+    }
+
+    private Request<?> add(RequestKey key, Request<?> request) {
+        Request<?> old = requests[key.getType().ordinal()].putIfAbsent(toKey(key.getId()), request);
+        if (old == null && key.getId() != null) {
+            // IDs are unique except a few types with externally defined IDs (like market rules),
+            // so the first registered request wins
+            requestsById.putIfAbsent(key.getId(), request);
+        }
+        return old;
+    }
+
+    private void remove(RequestKey key, Request<?> request) {
+        if (!requests[key.getType().ordinal()].remove(toKey(key.getId()), request)) {
             throw new IllegalArgumentException(String.format("Unknown request: %s", key));
         }
+        if (key.getId() != null && requestsById.remove(key.getId(), request)) {
+            // Another request could share the same ID, so it should be still reachable by ID
+            for (IntTable<Request<?>> table : requests) {
+                Request<?> other = table.get(key.getId());
+                if (other != null) {
+                    requestsById.putIfAbsent(key.getId(), other);
+                    break;
+                }
+            }
+        }
+    }
+
+    private List<Request<?>> all() {
+        List<Request<?>> result = new ArrayList<>();
+        for (IntTable<Request<?>> table : requests) {
+            result.addAll(table.values());
+        }
+        return result;
+    }
+
+    private static int toKey(Integer reqId) {
+        return reqId != null ? reqId : NO_ID;
     }
 
     public enum Type {
-        EVENT_CONTRACT_PNL,
-        EVENT_ACCOUNT_PNL,
-        EVENT_POSITION,
-        EVENT_POSITION_MULTI,
-        EVENT_ORDER_STATUS,
-        EVENT_MARKET_DATA,
-        EVENT_MARKET_DATA_LVL2,
-        EVENT_PORTFOLIO,
-        EVENT_HISTORICAL_DATA,
-        EVENT_EXECUTION_INFO,
-        REQ_MARKET_DATA,
-        REQ_MARKET_DEPTH_EXCHANGES,
-        REQ_CURRENT_TIME,
-        REQ_ORDER_PLACE,
-        REQ_ORDER_CANCEL,
-        REQ_ORDER_LIST,
-        REQ_EXECUTIONS,
-        REQ_CONTRACT_DETAIL,
-        REQ_CONTRACT_DESCRIPTION,
-        REQ_HISTORICAL_MIDPOINT_TICK,
-        REQ_HISTORICAL_BID_ASK_TICK,
-        REQ_HISTORICAL_TRADE,
-        REQ_HISTORICAL_DATA,
-        REQ_ACCOUNT_SUMMARY,
-        REQ_MARKET_RULE,
+        EVENT_CONTRACT_PNL(Lane.DEFAULT),
+        EVENT_ACCOUNT_PNL(Lane.DEFAULT),
+        EVENT_POSITION(Lane.DEFAULT),
+        EVENT_POSITION_MULTI(Lane.DEFAULT),
+        EVENT_ORDER_STATUS(Lane.DEFAULT),
+        EVENT_MARKET_DATA(Lane.MARKET_DATA),
+        EVENT_MARKET_DATA_LINE(Lane.MARKET_DATA),
+        EVENT_MARKET_DATA_UPDATE(Lane.MARKET_DATA),
+        EVENT_MARKET_DATA_LVL2(Lane.MARKET_DATA),
+        EVENT_PORTFOLIO(Lane.DEFAULT),
+        EVENT_HISTORICAL_DATA(Lane.HISTORICAL),
+        EVENT_REALTIME_BARS(Lane.MARKET_DATA),
+        EVENT_TICK_BY_TICK(Lane.MARKET_DATA),
+        EVENT_EXECUTION_INFO(Lane.DEFAULT),
+        REQ_MARKET_DATA(Lane.MARKET_DATA),
+        REQ_MARKET_DEPTH_EXCHANGES(Lane.DEFAULT),
+        REQ_CURRENT_TIME(Lane.DEFAULT),
+        REQ_ORDER_PLACE(Lane.ORDER),
+        REQ_ORDER_CANCEL(Lane.ORDER),
+        REQ_ORDER_LIST(Lane.DEFAULT),
+        REQ_EXECUTIONS(Lane.DEFAULT),
+        REQ_CONTRACT_DETAIL(Lane.DEFAULT),
+        REQ_CONTRACT_DESCRIPTION(Lane.DEFAULT),
+        REQ_HISTORICAL_MIDPOINT_TICK(Lane.HISTORICAL),
+        REQ_HISTORICAL_BID_ASK_TICK(Lane.HISTORICAL),
+        REQ_HISTORICAL_TRADE(Lane.HISTORICAL),
+        REQ_HISTORICAL_DATA(Lane.HISTORICAL),
+        REQ_HISTORICAL_SERIES(Lane.HISTORICAL),
+        REQ_ACCOUNT_SUMMARY(Lane.DEFAULT),
+        REQ_MARKET_RULE(Lane.DEFAULT);
+
+        private final Lane lane;
+
+        Type(Lane lane) {
+            this.lane = lane;
+        }
+
+        /**
+         * @return priority lane of the type's outbound messages
+         */
+        public Lane getLane() {
+            return lane;
+        }
     }
 
     public class RequestBuilder<T> {
@@ -202,28 +297,32 @@ public class RequestRepository implements AutoCloseable {
                     return;
                 }
 
-                Request<?> old = requests.putIfAbsent(key, request);
+                Request<?> old = add(key, request);
                 if (old != null) {
                     log.error("Duplicated request: {} {}", key, request);
                     log.error("This seems to mean that we are subscribed twice to the same thing " +
                         "on the same client");
-                    log.error("Existing requests are {}", requests);
+                    log.error("Existing requests are {}", all());
                     emitter.error(new IbExceptions.DuplicatedRequestError(key));
                     return;
                 }
 
+                Lane lane = type.getLane();
                 emitter.onDispose(() -> {
-                    remove(key);
+                    remove(key, request);
                     if (client.isConnected()) {
                         log.debug("Unregister from {}", request);
-                        request.unregister();
+                        outbound.submit(lane, request::unregister);
                     } else {
                         log.debug("Have no connection at unregister of {}", key);
                     }
                 });
 
-                request.register();
-                log.info("Register to {}", request);
+                // Messages are sent by the outbound scheduler, so the request is registered asynchronously
+                outbound.submit(lane, () -> {
+                    request.register();
+                    log.info("Register to {}", request);
+                });
             });
         }
     }
@@ -0,0 +1,91 @@
+package reactor.impl.request;
+
+import com.ib.client.Contract;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of subscriptions shared by all subscribers with the same key.
+ *
+ * <p>The first subscriber creates the upstream subscription, the following ones join it. Upstream is cancelled
+ * when the last subscriber disposes, and the next subscriber creates a new one.
+ *
+ * @implNote Subscribers are counted under the map entry of the key, and the entry is removed only when the count
+ *           drops to zero. A subscriber which joins while the previous last one is disposing reconnects the same
+ *           entry, so there is never more than one upstream per key.
+ */
+public class SharedSubscriptions {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedSubscriptions.class);
+
+    private final ConcurrentHashMap<Key, Connection<?>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * @param key     Subscription key, should include everything which makes upstream requests different
+     * @param history Number of the latest elements replayed to late subscribers, 0 for none
+     * @param source  Supplier of upstream subscription
+     * @return shared subscription
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> share(Key key, int history, Supplier<Flux<T>> source) {
+        return Flux.defer(() -> {
+            Connection<T> connection = (Connection<T>) subscriptions.compute(key, (k, existing) -> {
+                Connection<?> result = existing != null ? existing : new Connection<>(k, history, source);
+                result.subscribers++;
+                return result;
+            });
+            return connection.shared.doFinally(signal -> release(key, connection));
+        });
+    }
+
+    public int size() {
+        return subscriptions.size();
+    }
+
+    private void release(Key key, Connection<?> connection) {
+        subscriptions.computeIfPresent(key, (k, existing) -> {
+            if (existing != connection || --existing.subscribers > 0) {
+                return existing;
+            }
+            log.debug("Shared subscription {} is finished", key);
+            return null;
+        });
+    }
+
+    private static class Connection<T> {
+        private final Flux<T> shared;
+        // Guarded by the map entry of the key
+        private int subscribers;
+
+        Connection(Key key, int history, Supplier<Flux<T>> source) {
+            log.debug("New shared subscription {}", key);
+            Flux<T> upstream = Flux.defer(source);
+            shared = history > 0 ? upstream.replay(history).refCount() : upstream.publish().refCount();
+        }
+    }
+
+    @Data
+    public static class Key {
+        private final RequestRepository.Type type;
+        private final int conid;
+        private final String exchange;
+        private final String primaryExchange;
+        private final String params;
+
+        /**
+         * Key of a subscription to the contract, the exchanges of the contract are part of it.
+         */
+        public static Key of(RequestRepository.Type type, Contract contract, String params) {
+            return new Key(type,
+                    contract.conid(),
+                    contract.exchange() != null ? contract.exchange() : "",
+                    contract.primaryExch() != null ? contract.primaryExch() : "",
+                    params);
+        }
+    }
+}
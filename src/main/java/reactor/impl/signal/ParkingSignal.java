@@ -0,0 +1,39 @@
+package reactor.impl.signal;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Signal which parks the waiting thread and unparks it directly on signal, without a monitor.
+ */
+class ParkingSignal extends SpinningSignal {
+
+    private volatile Thread waiter;
+
+    @Override
+    public void issueSignal() {
+        super.issueSignal();
+
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void waitForSignal() {
+        waiter = Thread.currentThread();
+        try {
+            super.waitForSignal();
+        } finally {
+            waiter = null;
+        }
+    }
+
+    @Override
+    protected void idle(int attempt) {
+        // Flag is checked again after publishing the waiter, so a signal issued in between isn't lost
+        if (!isOpen()) {
+            LockSupport.park(this);
+        }
+    }
+}
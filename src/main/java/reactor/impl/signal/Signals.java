@@ -0,0 +1,17 @@
+package reactor.impl.signal;
+
+import com.ib.client.EJavaSignal;
+import com.ib.client.EReaderSignal;
+import reactor.params.WaitStrategy;
+
+public class Signals {
+
+    public static EReaderSignal create(WaitStrategy strategy) {
+        return switch (strategy) {
+            case BLOCKING -> new EJavaSignal();
+            case PARKING -> new ParkingSignal();
+            case YIELDING -> new YieldingSignal();
+            case BUSY_SPIN -> new SpinningSignal();
+        };
+    }
+}
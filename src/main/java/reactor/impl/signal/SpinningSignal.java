@@ -0,0 +1,40 @@
+package reactor.impl.signal;
+
+import com.ib.client.EReaderSignal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Signal which waits in a busy loop.
+ *
+ * <p>Base class for non-blocking signals: subclasses only define how to wait between checks of the flag.
+ * Waiting is stopped when the thread is interrupted, so the reader loop can exit.
+ */
+class SpinningSignal implements EReaderSignal {
+
+    private final AtomicBoolean open = new AtomicBoolean();
+
+    @Override
+    public void issueSignal() {
+        open.set(true);
+    }
+
+    @Override
+    public void waitForSignal() {
+        int attempt = 0;
+        while (!open.compareAndSet(true, false)) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            idle(attempt++);
+        }
+    }
+
+    protected boolean isOpen() {
+        return open.get();
+    }
+
+    protected void idle(int attempt) {
+        Thread.onSpinWait();
+    }
+}
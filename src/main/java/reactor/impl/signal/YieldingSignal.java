@@ -0,0 +1,18 @@
+package reactor.impl.signal;
+
+/**
+ * Signal which spins for a while and then yields the CPU between checks.
+ */
+class YieldingSignal extends SpinningSignal {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    protected void idle(int attempt) {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package reactor.impl.utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Parses bar times sent by TWS without allocation.
+ *
+ * <p>Supported layouts are {@code yyyyMMdd} for daily bars and {@code yyyyMMdd HH:mm:ss} with one or two spaces
+ * for intraday bars. A time zone suffix, if any, is ignored. A plain number (epoch seconds of
+ * {@code formatDate=2}) is returned as is. Dates and times out of range are rejected.
+ */
+public class BarTimeParser {
+
+    private static final int DATE_LENGTH = 8;
+
+    /**
+     * @return local time as seconds of {@link LocalDateTime#toEpochSecond} in UTC
+     */
+    public static long parseSeconds(CharSequence text) {
+        int length = text.length();
+        if (length < DATE_LENGTH) {
+            throw new IllegalArgumentException("Unexpected bar time: " + text);
+        }
+        if (length > DATE_LENGTH && isDigit(text.charAt(DATE_LENGTH))) {
+            return digits(text, 0, length);
+        }
+
+        int year = (int) digits(text, 0, 4);
+        int month = (int) digits(text, 4, 6);
+        int day = (int) digits(text, 6, 8);
+        if (month < 1 || month > 12 || day < 1 || day > monthLength(year, month)) {
+            throw new IllegalArgumentException("Unexpected bar time: " + text);
+        }
+        long seconds = epochDay(year, month, day) * 86_400L;
+
+        int position = DATE_LENGTH;
+        while (position < length && text.charAt(position) == ' ') {
+            position++;
+        }
+        if (position + 8 <= length && text.charAt(position + 2) == ':' && text.charAt(position + 5) == ':') {
+            long hours = digits(text, position, position + 2);
+            long minutes = digits(text, position + 3, position + 5);
+            long secondsOfMinute = digits(text, position + 6, position + 8);
+            if (hours > 23 || minutes > 59 || secondsOfMinute > 59) {
+                throw new IllegalArgumentException("Unexpected bar time: " + text);
+            }
+            seconds += hours * 3600 + minutes * 60 + secondsOfMinute;
+        }
+        return seconds;
+    }
+
+    public static LocalDateTime parse(CharSequence text) {
+        return LocalDateTime.ofEpochSecond(parseSeconds(text), 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        // Years start in March, so the leap day is the last day of a year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+
+    private static int monthLength(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static long digits(CharSequence text, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                throw new IllegalArgumentException("Unexpected bar time: " + text);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
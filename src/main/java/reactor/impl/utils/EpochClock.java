@@ -0,0 +1,27 @@
+package reactor.impl.utils;
+
+import java.time.Instant;
+
+/**
+ * Allocation-free wall clock with nanosecond resolution.
+ *
+ * <p>Wall time is captured once and then advanced with {@link System#nanoTime()}, so a reading is just a monotonic
+ * counter plus an offset. It drifts from the system clock the same way {@code nanoTime} does, which is negligible
+ * for tick timestamps.
+ */
+public class EpochClock {
+
+    private static final long OFFSET_NANOS;
+
+    static {
+        Instant now = Instant.now();
+        OFFSET_NANOS = now.getEpochSecond() * 1_000_000_000L + now.getNano() - System.nanoTime();
+    }
+
+    /**
+     * @return nanoseconds since the epoch
+     */
+    public static long nanos() {
+        return OFFSET_NANOS + System.nanoTime();
+    }
+}
@@ -0,0 +1,151 @@
+package reactor.impl.utils;
+
+import java.util.Arrays;
+
+/**
+ * Mutable primitive int set for short-lived bookkeeping, e.g. IDs which are still awaited.
+ *
+ * <p>Elements are stored in an open-addressed {@code int[]} with linear probing, and removal shifts the following
+ * entries back instead of leaving tombstones, so adding and removing never box and never copy the table. Unlike
+ * {@link IntTable} it's not thread-safe: callers synchronize access.
+ */
+public class IntSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public IntSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize number of elements which fit without resizing
+     */
+    public IntSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return true if the element has been added
+     */
+    public boolean add(int key) {
+        int index = mix(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        used[index] = true;
+        size++;
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return true if the element has been removed
+     */
+    public boolean remove(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+
+        // Shifting back entries of the probe sequence which follow the removed one, so lookups don't stop early
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * @return elements in no particular order
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                result[j++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(int key) {
+        int index = mix(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                add(oldKeys[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        // Keeping load factor at most 0.5 so probe sequences stay short
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,202 @@
+package reactor.impl.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Primitive int-keyed hash table with lock-free reads.
+ *
+ * <p>Keys are stored in an open-addressed {@code int[]} with linear probing, so a lookup never boxes the key and
+ * its cost does not depend on the number of entries. Writes are serialized and copy the table before publishing
+ * it through a volatile field, which suits the "rare writes from user threads, hot reads from the reader thread"
+ * pattern of subscriptions.
+ *
+ * @param <V> value type
+ */
+public class IntTable<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    public V get(int key) {
+        return table.get(key);
+    }
+
+    public boolean containsKey(int key) {
+        return table.get(key) != null;
+    }
+
+    /**
+     * @return previous value, or null if the value has been stored
+     */
+    public synchronized V putIfAbsent(int key, V value) {
+        V prev = table.get(key);
+        if (prev != null) {
+            return prev;
+        }
+
+        Table copy = table.copy(table.size + 1);
+        copy.put(key, value);
+        table = copy;
+        return null;
+    }
+
+    /**
+     * @return previous value, or null if key was absent
+     */
+    public synchronized V put(int key, V value) {
+        Table copy = table.copy(table.size + 1);
+        V prev = copy.put(key, value);
+        table = copy;
+        return prev;
+    }
+
+    /**
+     * @return removed value, or null if key was absent
+     */
+    public synchronized V remove(int key) {
+        V prev = table.get(key);
+        if (prev != null) {
+            table = table.copyWithout(key);
+        }
+        return prev;
+    }
+
+    /**
+     * Removes entry only if it is mapped to the specific value instance.
+     *
+     * @return true if entry has been removed
+     */
+    public synchronized boolean remove(int key, V value) {
+        if (table.get(key) != value) {
+            return false;
+        }
+        table = table.copyWithout(key);
+        return true;
+    }
+
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    public boolean isEmpty() {
+        return table.size == 0;
+    }
+
+    public void forEach(Consumer<V> consumer) {
+        table.forEach(consumer);
+    }
+
+    public List<V> values() {
+        List<V> result = new ArrayList<>(table.size);
+        table.forEach(result::add);
+        return result;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        // Keeping load factor below 0.5 so probe sequences stay short
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private class Table {
+        private final int[] keys;
+        private final Object[] values;
+        private final int mask;
+        private int size;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(int key) {
+            int index = mix(key) & mask;
+            while (true) {
+                Object value = values[index];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[index] == key) {
+                    return (V) value;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(int key, V value) {
+            int index = mix(key) & mask;
+            while (true) {
+                Object current = values[index];
+                if (current == null) {
+                    keys[index] = key;
+                    values[index] = value;
+                    size++;
+                    return null;
+                }
+                if (keys[index] == key) {
+                    values[index] = value;
+                    return (V) current;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(Consumer<V> consumer) {
+            for (Object value : values) {
+                if (value != null) {
+                    consumer.accept((V) value);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Table copy(int expectedSize) {
+            int capacity = capacityFor(expectedSize);
+            if (capacity == keys.length) {
+                Table result = new Table(capacity);
+                System.arraycopy(keys, 0, result.keys, 0, keys.length);
+                System.arraycopy(values, 0, result.values, 0, values.length);
+                result.size = size;
+                return result;
+            }
+
+            Table result = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null) {
+                    result.put(keys[i], (V) values[i]);
+                }
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        Table copyWithout(int key) {
+            Table result = new Table(capacityFor(size - 1));
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null && keys[i] != key) {
+                    result.put(keys[i], (V) values[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
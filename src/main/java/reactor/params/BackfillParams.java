@@ -0,0 +1,129 @@
+package reactor.params;
+
+import com.ib.client.Contract;
+import reactor.IbClient;
+import reactor.impl.Validators;
+
+import java.time.LocalDateTime;
+
+/**
+ * Builds parameters for {@link IbClient#backfill(Contract, BackfillParams)}.
+ *
+ * <p>Time range is in TWS timezone, like the time of returned bars.
+ */
+public class BackfillParams {
+
+    private static final int DEFAULT_CONCURRENCY = 2;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private IbClient.BarSize barSize = IbClient.BarSize.MIN_1;
+    private IbClient.Type type = IbClient.Type.TRADES;
+    private IbClient.TradingHours tradingHours = IbClient.TradingHours.Within;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private BackfillProgress progress;
+
+    /**
+     * Time range of bars.
+     *
+     * @param rangeFrom Start of the range, inclusive
+     * @param rangeTo   End of the range, exclusive
+     * @return this
+     */
+    public BackfillParams range(LocalDateTime rangeFrom, LocalDateTime rangeTo) {
+        Validators.shouldNotBeNull(rangeFrom, "Range start should be defined");
+        Validators.shouldNotBeNull(rangeTo, "Range end should be defined");
+        if (!rangeFrom.isBefore(rangeTo)) {
+            throw new IllegalArgumentException("Range start should be before its end");
+        }
+
+        from = rangeFrom;
+        to = rangeTo;
+        return this;
+    }
+
+    /**
+     * @param size Bar size, 1 minute by default
+     * @return this
+     */
+    public BackfillParams barSize(IbClient.BarSize size) {
+        Validators.shouldNotBeNull(size, "Bar size should be defined");
+        barSize = size;
+        return this;
+    }
+
+    /**
+     * @param dataType Type of data, trades by default
+     * @return this
+     */
+    public BackfillParams type(IbClient.Type dataType) {
+        Validators.shouldNotBeNull(dataType, "Type should be defined");
+        type = dataType;
+        return this;
+    }
+
+    /**
+     * @param hours Whether to return data only within regular trading hours, which is the default
+     * @return this
+     */
+    public BackfillParams tradingHours(IbClient.TradingHours hours) {
+        Validators.shouldNotBeNull(hours, "Trading hours should be defined");
+        tradingHours = hours;
+        return this;
+    }
+
+    /**
+     * Number of chunk requests of a contract in flight at once.
+     *
+     * <p>Requests are paced by TWS historical data limitations anyway, so higher values mostly help to hide request
+     * latency.
+     *
+     * @param requests Number of requests, 2 by default
+     * @return this
+     */
+    public BackfillParams concurrency(int requests) {
+        Validators.intShouldBePositive(requests, "Concurrency should be positive");
+        concurrency = requests;
+        return this;
+    }
+
+    /**
+     * Tracks completed chunks. Backfill with the same progress instance skips chunks which have been completed
+     * before, so an interrupted backfill can be resumed.
+     *
+     * @param backfillProgress Progress tracker
+     * @return this
+     */
+    public BackfillParams progress(BackfillProgress backfillProgress) {
+        progress = backfillProgress;
+        return this;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public IbClient.BarSize getBarSize() {
+        return barSize;
+    }
+
+    public IbClient.Type getType() {
+        return type;
+    }
+
+    public IbClient.TradingHours getTradingHours() {
+        return tradingHours;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public BackfillProgress getProgress() {
+        return progress;
+    }
+}
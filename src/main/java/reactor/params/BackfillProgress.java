@@ -0,0 +1,80 @@
+package reactor.params;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a backfill, see {@link BackfillParams#progress(BackfillProgress)}.
+ *
+ * <p>Chunks of a contract are completed in time order, so the progress of a contract is the end of its last
+ * completed chunk.
+ */
+public class BackfillProgress {
+
+    private final Map<Integer, LocalDateTime> completedUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger totalChunks = new AtomicInteger();
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicLong bars = new AtomicLong();
+
+    /**
+     * @return end of the last completed chunk of the contract, or null if none is completed
+     */
+    public LocalDateTime getCompletedUntil(int conid) {
+        return completedUntil.get(conid);
+    }
+
+    /**
+     * Restores progress of the contract, e.g. persisted by a previous run.
+     *
+     * @param conid Contract ID
+     * @param time  End of the last completed chunk
+     */
+    public void setCompletedUntil(int conid, LocalDateTime time) {
+        completedUntil.put(conid, time);
+    }
+
+    public int getTotalChunks() {
+        return totalChunks.get();
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    /**
+     * @return number of emitted bars
+     */
+    public long getBars() {
+        return bars.get();
+    }
+
+    /**
+     * @return share of completed chunks, from 0 to 1
+     */
+    public double getCompletion() {
+        int total = totalChunks.get();
+        return total > 0 ? (double) completedChunks.get() / total : 0;
+    }
+
+    public void addChunks(int count) {
+        totalChunks.addAndGet(count);
+    }
+
+    public void completeChunk(int conid, LocalDateTime end, int chunkBars) {
+        completedUntil.merge(conid, end, (prev, next) -> next.isAfter(prev) ? next : prev);
+        completedChunks.incrementAndGet();
+        bars.addAndGet(chunkBars);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BackfillProgress{chunks=%d/%d, bars=%d}",
+            completedChunks.get(),
+            totalChunks.get(),
+            bars.get()
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package reactor.params;
+
+import reactor.IbClient;
+import reactor.impl.Validators;
+
+import java.time.Duration;
+
+/**
+ * How {@link IbClient#subscribeOnLiveBars} aggregates trades into bars.
+ */
+public class BarAggregation {
+
+    private final long intervalNanos;
+    private final long volume;
+    private boolean partial;
+
+    private BarAggregation(long intervalNanos, long volume) {
+        this.intervalNanos = intervalNanos;
+        this.volume = volume;
+    }
+
+    /**
+     * Bars of a fixed duration, aligned to the epoch, so e.g. minute bars start at whole minutes and daily bars
+     * start at UTC midnight.
+     *
+     * @param interval Bar duration, from a nanosecond up to a day
+     * @return aggregation
+     */
+    public static BarAggregation time(Duration interval) {
+        Validators.shouldNotBeNull(interval, "Interval should be defined");
+        if (interval.isNegative() || interval.isZero() || interval.compareTo(Duration.ofDays(1)) > 0) {
+            throw new IllegalArgumentException("Interval should be positive and not longer than a day");
+        }
+        return new BarAggregation(interval.toNanos(), 0);
+    }
+
+    /**
+     * Bars of a fixed traded volume. A trade which exceeds the rest of the bar volume is split between bars.
+     *
+     * @param volume Volume of a bar
+     * @return aggregation
+     */
+    public static BarAggregation volume(long volume) {
+        if (volume <= 0) {
+            throw new IllegalArgumentException("Volume should be positive");
+        }
+        return new BarAggregation(0, volume);
+    }
+
+    /**
+     * Emit the unfinished bar after every trade, not only completed bars.
+     *
+     * @return this
+     */
+    public BarAggregation partial() {
+        partial = true;
+        return this;
+    }
+
+    /**
+     * @return bar duration in nanoseconds, or 0 for volume bars
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * @return bar volume, or 0 for time bars
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    public boolean isTimeBased() {
+        return intervalNanos > 0;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+}
@@ -0,0 +1,97 @@
+package reactor.params;
+
+import reactor.IbClient;
+import reactor.core.publisher.Flux;
+import reactor.impl.Validators;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Conflation mode of a market data stream for
+ * {@link IbClient#subscribeOnMarketData(com.ib.client.Contract, Conflation)}.
+ *
+ * <p>Conflated stream doesn't queue updates for a slow subscriber. It keeps only the latest state of the ticker and
+ * delivers it as soon as subscriber requests the next element.
+ *
+ * <p>Instance also counts updates of the stream it's applied to, so use a separate instance per stream.
+ */
+public class Conflation {
+
+    private final Duration interval;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+
+    private Conflation(Duration interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Delivers the latest state on every subscriber's request.
+     *
+     * @return conflation mode
+     */
+    public static Conflation latest() {
+        return new Conflation(null);
+    }
+
+    /**
+     * Delivers the latest state at most once per interval.
+     *
+     * @param interval sampling interval
+     * @return conflation mode
+     */
+    public static Conflation sampled(Duration interval) {
+        Validators.shouldNotBeNull(interval, "Interval should be defined");
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval should be positive");
+        }
+        return new Conflation(interval);
+    }
+
+    /**
+     * @return sampling interval, or null if stream delivers the latest state on every request
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return number of updates received from TWS
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * @return number of states delivered to subscriber
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * @return number of updates that have been merged into later states instead of being delivered
+     */
+    public long getConflatedCount() {
+        return Math.max(0, received.get() - delivered.get());
+    }
+
+    /**
+     * Applies conflation to a stream.
+     *
+     * @param source   stream of updates, where every element is the latest state
+     * @param snapshot makes a stable copy of the state at the moment of delivery
+     * @param <T>      state type
+     * @return conflated stream
+     */
+    public <T> Flux<T> apply(Flux<T> source, UnaryOperator<T> snapshot) {
+        Flux<T> counted = source.doOnNext(unused -> received.incrementAndGet());
+        Flux<T> sampled = interval != null ? counted.sample(interval) : counted;
+
+        return sampled.onBackpressureLatest()
+            .map(snapshot)
+            .doOnNext(unused -> delivered.incrementAndGet());
+    }
+}
@@ -1,12 +1,24 @@
 package reactor.params;
 
+import reactor.impl.Validators;
+
+import java.nio.file.Path;
 import java.time.Duration;
 
 public class IbClientOptions {
 
     private static final int DEFAULT_DELAY_S = 10;
+    private static final int DEFAULT_DISPATCH_QUEUE_SIZE = 1 << 16;
+    private static final int DEFAULT_MAX_MESSAGES_PER_SECOND = 50;
+    private static final int DEFAULT_TICK_RING_SIZE = 1024;
 
     private Duration connectionDelay = Duration.ofSeconds(DEFAULT_DELAY_S);
+    private int dispatchThreads;
+    private int dispatchQueueSize = DEFAULT_DISPATCH_QUEUE_SIZE;
+    private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+    private int maxMessagesPerSecond = DEFAULT_MAX_MESSAGES_PER_SECOND;
+    private Path barStoreDirectory;
+    private int tickRingSize = DEFAULT_TICK_RING_SIZE;
 
     /**
      * Delay before connection to TWS.
@@ -25,4 +37,119 @@ public class IbClientOptions {
     public Duration getConnectionDelay() {
         return connectionDelay;
     }
+
+    /**
+     * Number of threads processing decoded messages.
+     *
+     * <p>By default messages are processed by the reader thread, so a slow subscriber delays decoding of the
+     * following messages. With dispatch threads, reader only puts decoded messages into queues, and messages are
+     * processed by dispatch threads. Messages of the same subscription are always processed by the same thread in
+     * the order they have been received.
+     *
+     * @param threads Number of dispatch threads, or 0 to process messages by the reader thread
+     * @return this
+     */
+    public IbClientOptions dispatchThreads(int threads) {
+        Validators.intShouldBePositiveOrZero(threads, "Number of dispatch threads can't be negative");
+        dispatchThreads = threads;
+        return this;
+    }
+
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    /**
+     * Capacity of a queue of every dispatch thread.
+     *
+     * <p>Slots are allocated once on connect. If a queue is full, reader waits for the dispatch thread, while
+     * the socket is still read into the reader buffer.
+     *
+     * @param size Queue size, should be a power of 2
+     * @return this
+     */
+    public IbClientOptions dispatchQueueSize(int size) {
+        Validators.intShouldBePositive(size, "Dispatch queue size should be positive");
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Dispatch queue size should be a power of 2");
+        }
+        dispatchQueueSize = size;
+        return this;
+    }
+
+    public int getDispatchQueueSize() {
+        return dispatchQueueSize;
+    }
+
+    /**
+     * How the reader thread waits for new messages.
+     *
+     * @param strategy Wait strategy, {@link WaitStrategy#BLOCKING} by default
+     * @return this
+     */
+    public IbClientOptions waitStrategy(WaitStrategy strategy) {
+        Validators.shouldNotBeNull(strategy, "Wait strategy should be defined");
+        waitStrategy = strategy;
+        return this;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Max rate of messages sent to TWS.
+     *
+     * <p>TWS disconnects clients which send more than 50 messages per second. Messages above the rate are queued,
+     * and orders are sent before other queued requests.
+     *
+     * @param rate Messages per second, 50 by default
+     * @return this
+     */
+    public IbClientOptions maxMessagesPerSecond(int rate) {
+        Validators.intShouldBePositive(rate, "Message rate should be positive");
+        maxMessagesPerSecond = rate;
+        return this;
+    }
+
+    public int getMaxMessagesPerSecond() {
+        return maxMessagesPerSecond;
+    }
+
+    /**
+     * Directory of the local historical bar store.
+     *
+     * <p>Bars received by {@code reqHistoricalData} are stored on disk, and later requests are answered from the
+     * store, only missing ranges are requested from TWS.
+     *
+     * @param directory Store directory, or null to request all bars from TWS (default)
+     * @return this
+     */
+    public IbClientOptions barStoreDirectory(Path directory) {
+        barStoreDirectory = directory;
+        return this;
+    }
+
+    public Path getBarStoreDirectory() {
+        return barStoreDirectory;
+    }
+
+    /**
+     * Number of the latest tick-by-tick events kept per contract and kind for lookback.
+     *
+     * @param size Ring size, should be a power of 2, 1024 by default
+     * @return this
+     */
+    public IbClientOptions tickRingSize(int size) {
+        Validators.intShouldBePositive(size, "Tick ring size should be positive");
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Tick ring size should be a power of 2");
+        }
+        tickRingSize = size;
+        return this;
+    }
+
+    public int getTickRingSize() {
+        return tickRingSize;
+    }
 }
@@ -0,0 +1,34 @@
+package reactor.params;
+
+import com.ib.client.Contract;
+import com.ib.client.Order;
+import reactor.IbClient;
+import reactor.impl.Validators;
+
+/**
+ * Contract and order to place with {@link IbClient#placeOrders}.
+ */
+public class OrderRequest {
+
+    private final Contract contract;
+    private final Order order;
+
+    private OrderRequest(Contract contract, Order order) {
+        this.contract = contract;
+        this.order = order;
+    }
+
+    public static OrderRequest of(Contract contract, Order order) {
+        Validators.shouldNotBeNull(contract, "Contract should be defined");
+        Validators.shouldNotBeNull(order, "Order should be defined");
+        return new OrderRequest(contract, order);
+    }
+
+    public Contract getContract() {
+        return contract;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+}
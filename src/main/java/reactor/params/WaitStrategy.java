@@ -0,0 +1,26 @@
+package reactor.params;
+
+/**
+ * How the reader thread waits for new messages from the socket.
+ *
+ * <p>Non-blocking strategies reduce the delay between receiving a message and calling subscribers, but keep the
+ * reader thread busy when there are no messages.
+ */
+public enum WaitStrategy {
+    /**
+     * Waits on a monitor. Default strategy of TWS API, it doesn't consume CPU while waiting.
+     */
+    BLOCKING,
+    /**
+     * Parks the reader thread and unparks it on a new message. Cheaper wake up than {@link #BLOCKING}.
+     */
+    PARKING,
+    /**
+     * Spins for a short time and then yields the CPU between checks.
+     */
+    YIELDING,
+    /**
+     * Spins constantly. Lowest and most stable latency, but occupies a CPU core.
+     */
+    BUSY_SPIN,
+}
@@ -0,0 +1,205 @@
+package reactor.types;
+
+import com.ib.client.Bar;
+import reactor.impl.utils.BarTimeParser;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Bars of a contract stored in primitive columns.
+ *
+ * <p>Unlike a list of {@link IbBar}, a series allocates only its column arrays, so long series can be loaded and
+ * scanned without creating an object per bar. Bars are appended in the order they are received. Times are TWS
+ * local times, kept as seconds of {@link LocalDateTime#toEpochSecond} in UTC.
+ *
+ * <p>Series is not thread-safe.
+ */
+public class BarSeries {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] times;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private long[] volumes;
+    private int[] counts;
+    private double[] waps;
+    private int size;
+
+    public BarSeries() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public BarSeries(int capacity) {
+        times = new long[capacity];
+        opens = new double[capacity];
+        highs = new double[capacity];
+        lows = new double[capacity];
+        closes = new double[capacity];
+        volumes = new long[capacity];
+        counts = new int[capacity];
+        waps = new double[capacity];
+    }
+
+    public void add(Bar bar) {
+        add(BarTimeParser.parseSeconds(bar.time()),
+            bar.open(),
+            bar.high(),
+            bar.low(),
+            bar.close(),
+            bar.volume(),
+            bar.count(),
+            bar.wap()
+        );
+    }
+
+    public void add(IbBar bar) {
+        add(bar.getTime().toEpochSecond(ZoneOffset.UTC),
+            bar.getOpen().doubleValue(),
+            bar.getHigh().doubleValue(),
+            bar.getLow().doubleValue(),
+            bar.getClose().doubleValue(),
+            bar.getVolume(),
+            bar.getCount(),
+            bar.getWap().doubleValue()
+        );
+    }
+
+    public void add(
+        long time, double open, double high, double low, double close, long volume, int count, double wap
+    ) {
+        if (size == times.length) {
+            grow();
+        }
+        times[size] = time;
+        opens[size] = open;
+        highs[size] = high;
+        lows[size] = low;
+        closes[size] = close;
+        volumes[size] = volume;
+        counts[size] = count;
+        waps[size] = wap;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return bar start as seconds of {@link LocalDateTime#toEpochSecond} in UTC
+     */
+    public long getTimeSeconds(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    public LocalDateTime getTime(int index) {
+        return LocalDateTime.ofEpochSecond(getTimeSeconds(index), 0, ZoneOffset.UTC);
+    }
+
+    public double getOpen(int index) {
+        checkIndex(index);
+        return opens[index];
+    }
+
+    public double getHigh(int index) {
+        checkIndex(index);
+        return highs[index];
+    }
+
+    public double getLow(int index) {
+        checkIndex(index);
+        return lows[index];
+    }
+
+    public double getClose(int index) {
+        checkIndex(index);
+        return closes[index];
+    }
+
+    public long getVolume(int index) {
+        checkIndex(index);
+        return volumes[index];
+    }
+
+    public int getCount(int index) {
+        checkIndex(index);
+        return counts[index];
+    }
+
+    public double getWap(int index) {
+        checkIndex(index);
+        return waps[index];
+    }
+
+    /**
+     * @return index of the first bar starting at or after the time, or {@link #size()} if there is no such bar.
+     *         Bars should be in time order.
+     */
+    public int indexOf(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < seconds) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return copy of the bar as an object
+     */
+    public IbBar getBar(int index) {
+        checkIndex(index);
+        return new IbBar(getTime(index),
+            BigDecimal.valueOf(opens[index]),
+            BigDecimal.valueOf(highs[index]),
+            BigDecimal.valueOf(lows[index]),
+            BigDecimal.valueOf(closes[index]),
+            volumes[index],
+            counts[index],
+            BigDecimal.valueOf(waps[index])
+        );
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of series size " + size);
+        }
+    }
+
+    private void grow() {
+        int capacity = Math.max(times.length * 2, INITIAL_CAPACITY);
+        times = Arrays.copyOf(times, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        waps = Arrays.copyOf(waps, capacity);
+    }
+
+    @Override
+    public String toString() {
+        return "BarSeries{" +
+            "size=" + size +
+            (size > 0 ? ", from=" + getTime(0) + ", to=" + getTime(size - 1) : "") +
+            '}';
+    }
+}
@@ -2,25 +2,16 @@ package reactor.types;
 
 import com.ib.client.Bar;
 import lombok.Data;
+import reactor.impl.utils.BarTimeParser;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
-import java.time.temporal.ChronoField;
 
 @Data
 public class IbBar {
 
     public static final IbBar COMPLETE = new IbBar();
 
-    private static final DateTimeFormatter dateTimeFormatter =
-        new DateTimeFormatterBuilder().appendPattern("yyyyMMdd[  HH:mm:ss]")
-            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
-            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
-            .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
-            .toFormatter();
-
     private final LocalDateTime time;
     private final BigDecimal open;
     private final BigDecimal high;
@@ -31,7 +22,7 @@ public class IbBar {
     private final BigDecimal wap;
 
     public IbBar(Bar bar) {
-        time = LocalDateTime.from(dateTimeFormatter.parse(bar.time()));
+        time = BarTimeParser.parse(bar.time());
         open = BigDecimal.valueOf(bar.open());
         high = BigDecimal.valueOf(bar.high());
         low = BigDecimal.valueOf(bar.low());
@@ -41,6 +32,26 @@ public class IbBar {
         wap = BigDecimal.valueOf(bar.wap());
     }
 
+    public IbBar(
+        LocalDateTime time,
+        BigDecimal open,
+        BigDecimal high,
+        BigDecimal low,
+        BigDecimal close,
+        long volume,
+        int count,
+        BigDecimal wap
+    ) {
+        this.time = time;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.count = count;
+        this.wap = wap;
+    }
+
     private IbBar() {
         time = null;
         open = null;
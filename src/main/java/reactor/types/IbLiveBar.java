@@ -0,0 +1,35 @@
+package reactor.types;
+
+import lombok.Data;
+
+/**
+ * Bar aggregated locally from live trades.
+ *
+ * @see reactor.params.BarAggregation
+ */
+@Data
+public class IbLiveBar {
+    private final int conid;
+    /**
+     * Epoch nanoseconds of the bar start. Time bars start at the interval boundary, volume bars at the first trade.
+     */
+    private final long start;
+    /**
+     * Epoch nanoseconds of the bar end. Time bars end at the next interval boundary, volume bars at the last trade.
+     */
+    private final long end;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final long volume;
+    private final int count;
+    /**
+     * Volume weighted average price.
+     */
+    private final double wap;
+    /**
+     * False if the bar is still being built and will be emitted again.
+     */
+    private final boolean complete;
+}
@@ -3,33 +3,126 @@ package reactor.types;
 import com.ib.client.Contract;
 import com.ib.client.Order;
 import com.ib.client.OrderState;
+import com.ib.client.OrderStatus;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Order with its status history.
+ *
+ * <p>Status changes follow the order life cycle: once an order is filled or cancelled, statuses of other kinds are
+ * rejected. Statuses are added under the order lock, which claims the history slot and publishes the status in one
+ * step, so the history is always in order. The current status and the count are then readable without the lock.
+ * Only the latest {@value #HISTORY_CAPACITY} statuses are kept, so an order with many partial fills doesn't grow
+ * without bound.
+ */
 @Data
 public class IbOrder {
+
+    public static final int HISTORY_CAPACITY = 32;
+    private static final int HISTORY_MASK = HISTORY_CAPACITY - 1;
+
     private final int orderId;
     private final Contract contract;
     private final Order order;
     private final OrderState state;
 
-    private final LinkedList<IbOrderStatus> statuses = new LinkedList<>();
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final AtomicReference<IbOrderStatus> lastStatus = new AtomicReference<>();
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final IbOrderStatus[] history = new IbOrderStatus[HISTORY_CAPACITY];
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicLong historySize = new AtomicLong();
 
+    /**
+     * @return false if the status repeats the current one, or the transition is not valid
+     */
     public synchronized boolean addStatus(IbOrderStatus status) {
-        if (!statuses.contains(status)) {
-            return statuses.add(status);
+        IbOrderStatus current = lastStatus.get();
+        if (status.equals(current)) {
+            return false;
         }
+        if (current != null && !isValidTransition(current.getStatus(), status.getStatus())) {
+            return false;
+        }
+        long index = historySize.get();
+        history[(int) (index & HISTORY_MASK)] = status;
+        historySize.set(index + 1);
+        lastStatus.set(status);
+        return true;
+    }
 
-        return false;
+    /**
+     * Adds statuses in order, e.g. of the previous version of the order.
+     */
+    public void addStatuses(List<IbOrderStatus> list) {
+        for (IbOrderStatus status : list) {
+            addStatus(status);
+        }
+    }
+
+    /**
+     * @return current status, or null if no status has been received yet
+     */
+    public IbOrderStatus getLastStatus() {
+        return lastStatus.get();
+    }
+
+    /**
+     * @return current status, or the status of the open order if no status has been received yet
+     */
+    public OrderStatus getCurrentStatus() {
+        IbOrderStatus current = lastStatus.get();
+        if (current != null) {
+            return current.getStatus();
+        }
+        return state != null && state.status() != null ? state.status() : OrderStatus.Unknown;
+    }
+
+    /**
+     * @return latest statuses from the oldest to the newest, at most {@value #HISTORY_CAPACITY}
+     */
+    public synchronized List<IbOrderStatus> getStatuses() {
+        long end = historySize.get();
+        long start = Math.max(0, end - HISTORY_CAPACITY);
+        List<IbOrderStatus> result = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            result.add(history[(int) (i & HISTORY_MASK)]);
+        }
+        return result;
     }
 
-    public synchronized void addStatuses(List<IbOrderStatus> list) {
-        statuses.addAll(list);
+    /**
+     * @return number of statuses since the order creation, including ones which are not kept anymore
+     */
+    public long getStatusCount() {
+        return historySize.get();
     }
 
-    public synchronized IbOrderStatus getLastStatus() {
-        return statuses.getLast();
+    /**
+     * Filled and cancelled orders are final, they accept only updates of the same status (e.g. a late fill price).
+     * Any other change is valid.
+     */
+    public static boolean isValidTransition(OrderStatus from, OrderStatus to) {
+        return switch (from) {
+            case Filled -> to == OrderStatus.Filled;
+            case Cancelled, ApiCancelled -> to == OrderStatus.Cancelled || to == OrderStatus.ApiCancelled;
+            default -> true;
+        };
     }
 }
@@ -0,0 +1,90 @@
+package reactor.types;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcomes of a batch of order placements or cancellations, in the order of the batch.
+ *
+ * <p>A batch doesn't fail as a whole: every order succeeds or fails on its own, and failures are reported with
+ * their order IDs.
+ */
+@Data
+public class IbOrderBatchResult<T> {
+
+    private final List<Outcome<T>> outcomes;
+
+    /**
+     * @return true if all orders of the batch succeeded
+     */
+    public boolean isSuccess() {
+        for (Outcome<T> outcome : outcomes) {
+            if (!outcome.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return results of succeeded orders
+     */
+    public List<T> getResults() {
+        List<T> results = new ArrayList<>(outcomes.size());
+        for (Outcome<T> outcome : outcomes) {
+            if (outcome.isSuccess() && outcome.getResult() != null) {
+                results.add(outcome.getResult());
+            }
+        }
+        return results;
+    }
+
+    public List<Integer> getSucceededIds() {
+        List<Integer> ids = new ArrayList<>(outcomes.size());
+        for (Outcome<T> outcome : outcomes) {
+            if (outcome.isSuccess()) {
+                ids.add(outcome.getOrderId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return errors of failed orders by order ID
+     */
+    public Map<Integer, Throwable> getFailures() {
+        Map<Integer, Throwable> failures = new LinkedHashMap<>();
+        for (Outcome<T> outcome : outcomes) {
+            if (!outcome.isSuccess()) {
+                failures.put(outcome.getOrderId(), outcome.getError());
+            }
+        }
+        return failures;
+    }
+
+    @Data
+    public static class Outcome<T> {
+        private final int orderId;
+        /**
+         * Result of the order, null if the order failed or the operation has no result (e.g. cancellation).
+         */
+        private final T result;
+        private final Throwable error;
+
+        public static <T> Outcome<T> success(int orderId, T result) {
+            return new Outcome<>(orderId, result, null);
+        }
+
+        public static <T> Outcome<T> failure(int orderId, Throwable error) {
+            return new Outcome<>(orderId, null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package reactor.types;
+
+import com.ib.client.Contract;
+
+import java.util.Arrays;
+
+/**
+ * Immutable consistent snapshot of a contract's order book.
+ *
+ * <p>Levels are indexed from the top of the book. Missing levels have NaN price and zero size.
+ */
+public class IbOrderBook {
+
+    private final Contract contract;
+    private final long version;
+    private final long timestamp;
+    private final double[] bidPrices;
+    private final int[] bidSizes;
+    private final double[] askPrices;
+    private final int[] askSizes;
+
+    /**
+     * Arrays are owned by the snapshot and should not be modified after the construction.
+     */
+    public IbOrderBook(
+        Contract contract,
+        long version,
+        long timestamp,
+        double[] bidPrices,
+        int[] bidSizes,
+        double[] askPrices,
+        int[] askSizes
+    ) {
+        this.contract = contract;
+        this.version = version;
+        this.timestamp = timestamp;
+        this.bidPrices = bidPrices;
+        this.bidSizes = bidSizes;
+        this.askPrices = askPrices;
+        this.askSizes = askSizes;
+    }
+
+    public Contract getContract() {
+        return contract;
+    }
+
+    /**
+     * @return number of updates applied to the book before the snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return epoch nanoseconds of the snapshot
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getBidDepth() {
+        return bidPrices.length;
+    }
+
+    public int getAskDepth() {
+        return askPrices.length;
+    }
+
+    public double getBidPrice(int level) {
+        return level >= 0 && level < bidPrices.length ? bidPrices[level] : Double.NaN;
+    }
+
+    public int getBidSize(int level) {
+        return level >= 0 && level < bidSizes.length ? bidSizes[level] : 0;
+    }
+
+    public double getAskPrice(int level) {
+        return level >= 0 && level < askPrices.length ? askPrices[level] : Double.NaN;
+    }
+
+    public int getAskSize(int level) {
+        return level >= 0 && level < askSizes.length ? askSizes[level] : 0;
+    }
+
+    public double getBestBid() {
+        return getBidPrice(0);
+    }
+
+    public double getBestAsk() {
+        return getAskPrice(0);
+    }
+
+    @Override
+    public String toString() {
+        return "IbOrderBook{" +
+            "conid=" + (contract != null ? contract.conid() : 0) +
+            ", version=" + version +
+            ", bidPrices=" + Arrays.toString(bidPrices) +
+            ", bidSizes=" + Arrays.toString(bidSizes) +
+            ", askPrices=" + Arrays.toString(askPrices) +
+            ", askSizes=" + Arrays.toString(askSizes) +
+            '}';
+    }
+}
@@ -0,0 +1,27 @@
+package reactor.types;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * State of the queue of messages sent to TWS.
+ */
+@Data
+public class IbOutboundMetrics {
+    private final Map<Lane, Integer> queueSizes;
+    private final Map<Lane, Long> sentCounts;
+    private final Map<Lane, Duration> averageWaits;
+    private final Map<Lane, Duration> maxWaits;
+
+    /**
+     * Priority lanes of outbound messages, from the highest priority to the lowest.
+     */
+    public enum Lane {
+        ORDER,
+        DEFAULT,
+        MARKET_DATA,
+        HISTORICAL,
+    }
+}
@@ -1,164 +1,62 @@
 package reactor.types;
 
 import com.ib.client.TickAttrib;
-import lombok.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.time.ZoneId;
 
-@Data
+/**
+ * Level I market data of a single ticker.
+ *
+ * <p>A view over {@link IbTickStore}, which keeps received values in compact primitive arrays. Boxed values are
+ * created only on read.
+ */
 public class IbTick {
 
     private static final Logger log = LoggerFactory.getLogger(IbTick.class);
-    private Integer bidSize;
-    private Integer askSize;
-    private Integer lastSize;
-    private Integer volume;
-    private Integer volumeAverage;
-    private Integer optionCallOpenInterest;
-    private Integer optionPutOpenInterest;
-    private Integer optionCallVolume;
-    private Integer optionPutVolume;
-    private Integer actionVolume;
-    private Integer actionImbalance;
-    private Integer regulatoryImbalance;
-    private Integer shortTermVolume3Min;
-    private Integer shortTermVolume5Min;
-    private Integer shortTermVolume10Min;
-    private Integer delayedBidSize;
-    private Integer delayedAskSize;
-    private Integer delayedLastSize;
-    private Integer delayedVolume;
-    private Integer futuresOpenInterest;
-    private Integer averageOptionVolume;
-    private Integer shortableShares;
-    private BigDecimal bid;
-    private BigDecimal ask;
-    private BigDecimal lastPrice;
-    private BigDecimal highPrice;
-    private BigDecimal lowPrice;
-    private BigDecimal closePrice;
-    private BigDecimal openTick;
-    private BigDecimal low13Weeks;
-    private BigDecimal high13Weeks;
-    private BigDecimal low26Weeks;
-    private BigDecimal high26Weeks;
-    private BigDecimal low52Weeks;
-    private BigDecimal high52Weeks;
-    private BigDecimal auctionPrice;
-    private BigDecimal markPrice;
-    private BigDecimal bidYield;
-    private BigDecimal askYield;
-    private BigDecimal lastYield;
-    private BigDecimal lastRthTrade;
-    private BigDecimal delayedBid;
-    private BigDecimal delayedAsk;
-    private BigDecimal delayedLast;
-    private BigDecimal delayedHighPrice;
-    private BigDecimal delayedLowPrice;
-    private BigDecimal delayedClose;
-    private BigDecimal delayedOpen;
-    private BigDecimal creditmanMarkPrice;
-    private BigDecimal creditmanSlowMarkPrice;
-    private BigDecimal delayedBidOption;
-    private BigDecimal delayedAskOption;
-    private BigDecimal delayedLastOption;
-    private BigDecimal delayedModelOption;
-    private String bidExchange;
-    private String askExchange;
-    private String lastTimestamp;
-    private String rtVolume;
-    private String ibDividends;
-    private String news;
-    private String rtTradeVolume;
-    private String lastExchange;
-    private String lastRegulatoryTime;
-    private String delayedLastTimestamp;
-    private BigDecimal optionHistoricalVolatility;
-    private BigDecimal optionImpliedVolatility;
-    private BigDecimal indexFuturePremium;
-    private BigDecimal shortable;
-    private BigDecimal halted;
-    private BigDecimal tradeCount;
-    private BigDecimal tradeRate;
-    private BigDecimal volumeRate;
-    private BigDecimal rtHistoricalVolatility;
-    private LocalDateTime updateTime;
-
-    public void setIntValue(int tickerId, Integer type, Integer value) {
-
-        Types.valueOf(type).ifPresent(tickType -> {
-            switch (tickType) {
-                case BID_SIZE -> bidSize = value;
-                case ASK_SIZE -> askSize = value;
-                case LAST_SIZE -> lastSize = value;
-                case VOLUME -> volume = value;
-                case VOLUME_AVERAGE -> volumeAverage = value;
-                case OPTION_CALL_OPEN_INTEREST -> optionCallOpenInterest = value;
-                case OPTION_PUT_OPEN_INTEREST -> optionPutOpenInterest = value;
-                case OPTION_CALL_VOLUME -> optionCallVolume = value;
-                case OPTION_PUT_VOLUME -> optionPutVolume = value;
-                case ACTION_VOLUME -> actionVolume = value;
-                case ACTION_IMBALANCE -> actionImbalance = value;
-                case REGULATORY_IMBALANCE -> regulatoryImbalance = value;
-                case SHORT_TERM_VOLUME3_MIN -> shortTermVolume3Min = value;
-                case SHORT_TERM_VOLUME5_MIN -> shortTermVolume5Min = value;
-                case SHORT_TERM_VOLUME10_MIN -> shortTermVolume10Min = value;
-                case DELAYED_BID_SIZE -> delayedBidSize = value;
-                case DELAYED_ASK_SIZE -> delayedAskSize = value;
-                case DELAYED_LAST_SIZE -> delayedLastSize = value;
-                case DELAYED_VOLUME -> delayedVolume = value;
-                case FUTURES_OPEN_INTEREST -> futuresOpenInterest = value;
-                case AVERAGE_OPTION_VOLUME -> averageOptionVolume = value;
-                case SHORTABLE_SHARES -> shortableShares = value;
-                default -> log.warn("Unknown int type for tick, type={}, value={}", type, value);
-            }
+
+    private final IbTickStore store;
+
+    public IbTick() {
+        this(new IbTickStore());
+    }
+
+    public IbTick(IbTickStore store) {
+        this.store = store;
+    }
+
+    public void setIntValue(int tickerId, int type, int value) {
+        Types tickType = Types.of(type);
+        if (tickType == null) {
+            return;
+        }
+        if (tickType.kind != Kind.SIZE) {
+            log.warn("Unknown int type for tick, type={}, value={}", type, value);
+            return;
+        }
+
+        store.setLong(tickType, value);
+        if (log.isTraceEnabled()) {
             log.trace("Set value for {}: {} = {}", tickerId, tickType, value);
-        });
-    }
-
-    public void setPriceValue(int tickerId, Integer type, BigDecimal value, TickAttrib attrib) {
-        Types.valueOf(type).ifPresent(tickType -> {
-            switch (tickType) {
-                case BID -> bid = value;
-                case ASK -> ask = value;
-                case LAST -> lastPrice = value;
-                case HIGH -> highPrice = value;
-                case LOW -> lowPrice = value;
-                case CLOSE_PRICE -> closePrice = value;
-                case OPEN_TICK -> openTick = value;
-                case LOW13_WEEKS -> low13Weeks = value;
-                case HIGH13_WEEKS -> high13Weeks = value;
-                case LOW26_WEEKS -> low26Weeks = value;
-                case HIGH26_WEEKS -> high26Weeks = value;
-                case LOW52_WEEKS -> low52Weeks = value;
-                case HIGH52_WEEKS -> high52Weeks = value;
-                case AUCTION_PRICE -> auctionPrice = value;
-                case MARK_PRICE -> markPrice = value;
-                case BID_YIELD -> bidYield = value;
-                case ASK_YIELD -> askYield = value;
-                case LAST_YIELD -> lastYield = value;
-                case LAST_RTHTRADE -> lastRthTrade = value;
-                case DELAYED_BID -> delayedBid = value;
-                case DELAYED_ASK -> delayedAsk = value;
-                case DELAYED_LAST -> delayedLast = value;
-                case DELAYED_HIGH_PRICE -> delayedHighPrice = value;
-                case DELAYED_LOW_PRICE -> delayedLowPrice = value;
-                case DELAYED_CLOSE -> delayedClose = value;
-                case DELAYED_OPEN -> delayedOpen = value;
-                case CREDITMAN_MARK_PRICE -> creditmanMarkPrice = value;
-                case CREDITMAN_SLOW_MAR_KPRICE -> creditmanSlowMarkPrice = value;
-                case DELAYED_BID_OPTION -> delayedBidOption = value;
-                case DELAYED_ASK_OPTION -> delayedAskOption = value;
-                case DELAYED_LAST_OPTION -> delayedLastOption = value;
-                case DELAYED_MODEL_OPTION -> delayedModelOption = value;
-                default -> log.warn("Unknown price type for tick, type={}, value={}", type, value);
-            }
+        }
+    }
+
+    public void setPriceValue(int tickerId, int type, double value, TickAttrib attrib) {
+        Types tickType = Types.of(type);
+        if (tickType == null) {
+            return;
+        }
+        if (tickType.kind != Kind.PRICE) {
+            log.warn("Unknown price type for tick, type={}, value={}", type, value);
+            return;
+        }
+
+        store.setDouble(tickType, value);
+        if (log.isTraceEnabled()) {
             log.trace(
                 "Set value for {}: {} = {}, attr: [auto exec: {}, past limit: {}, pre open: {}]",
                 tickerId,
@@ -168,151 +66,544 @@ public class IbTick {
                 attrib.pastLimit(),
                 attrib.preOpen()
             );
-        });
-    }
-
-    public void setStringValue(int tickerId, Integer type, String value) {
-        Types.valueOf(type).ifPresent(tickType -> {
-            switch (tickType) {
-                case BID_EXCHANGE -> bidExchange = value;
-                case ASK_EXCHANGE -> askExchange = value;
-                case LAST_TIMESTAMP -> lastTimestamp = value;
-                case RT_VOLUME -> rtVolume = value;
-                case IB_DIVIDENDS -> ibDividends = value;
-                case NEWS -> news = value;
-                case RT_TRADE_VOLUME -> rtTradeVolume = value;
-                case LAST_EXCHANGE -> lastExchange = value;
-                case LAST_REGULATORY_TIME -> lastRegulatoryTime = value;
-                case DELAYED_LAST_TIMESTAMP -> delayedLastTimestamp = value;
-                default -> log.warn("Unknown string type for tick, type={}, value={}", type, value);
-            }
+        }
+    }
+
+    public void setStringValue(int tickerId, int type, String value) {
+        Types tickType = Types.of(type);
+        if (tickType == null) {
+            return;
+        }
+        if (tickType.kind != Kind.STRING) {
+            log.warn("Unknown string type for tick, type={}, value={}", type, value);
+            return;
+        }
+
+        store.setString(tickType, value);
+        if (log.isTraceEnabled()) {
             log.trace("Set value for {}: {} = {}", tickerId, tickType, value);
-        });
-    }
-
-    public void setGenericValue(int tickerId, Integer type, BigDecimal value) {
-        Types.valueOf(type).ifPresent(tickType -> {
-            switch (tickType) {
-                case OPTION_HISTORICAL_VOLATILITY -> optionHistoricalVolatility = value;
-                case OPTION_IMPLIED_VOLATILITY -> optionImpliedVolatility = value;
-                case INDEX_FUTURE_PREMIUM -> indexFuturePremium = value;
-                case SHORTABLE -> shortable = value;
-                case HALTED -> halted = value;
-                case TRADE_COUNT -> tradeCount = value;
-                case TRADE_RATE -> tradeRate = value;
-                case VOLUME_RATE -> volumeRate = value;
-                case RT_HISTORICAL_VOLATILITY -> rtHistoricalVolatility = value;
-                default ->
-                    log.warn("Unknown generic type for tick, type={}, value={}", type, value);
-            }
+        }
+    }
+
+    public void setGenericValue(int tickerId, int type, double value) {
+        Types tickType = Types.of(type);
+        if (tickType == null) {
+            return;
+        }
+        if (tickType.kind != Kind.GENERIC) {
+            log.warn("Unknown generic type for tick, type={}, value={}", type, value);
+            return;
+        }
+
+        store.setDouble(tickType, value);
+        if (log.isTraceEnabled()) {
             log.trace("Set value for {}: {} = {}", tickerId, tickType, value);
-        });
+        }
+    }
+
+    public void refreshUpdateTime(long epochNanos) {
+        store.setUpdateTime(epochNanos);
+    }
+
+    public IbTickStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns a consistent copy of all fields, that is not affected by further updates.
+     *
+     * @return detached tick
+     */
+    public IbTick snapshot() {
+        return new IbTick(store.copy());
+    }
+
+    /**
+     * @return value of a price or generic tick, or NaN if it's not received yet or the tick is of another kind
+     */
+    public double getDouble(Types type) {
+        return store.getDouble(type);
+    }
+
+    /**
+     * @return value of a size tick, or {@link Long#MIN_VALUE} if it's not received yet or the tick is of another
+     *         kind
+     */
+    public long getLong(Types type) {
+        return store.getLong(type);
+    }
+
+    /**
+     * @return value of a string tick, or null if it's not received yet or the tick is of another kind
+     */
+    public String getString(Types type) {
+        return store.getString(type);
+    }
+
+    public long getUpdateTimeNanos() {
+        return store.getUpdateTime();
+    }
+
+    public LocalDateTime getUpdateTime() {
+        long updateTime = store.getUpdateTime();
+        if (updateTime == 0) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, updateTime), ZoneId.systemDefault());
+    }
+
+    public Integer getBidSize() {
+        return getInt(Types.BID_SIZE);
+    }
+
+    public Integer getAskSize() {
+        return getInt(Types.ASK_SIZE);
+    }
+
+    public Integer getLastSize() {
+        return getInt(Types.LAST_SIZE);
+    }
+
+    public Integer getVolume() {
+        return getInt(Types.VOLUME);
+    }
+
+    public Integer getVolumeAverage() {
+        return getInt(Types.VOLUME_AVERAGE);
+    }
+
+    public Integer getOptionCallOpenInterest() {
+        return getInt(Types.OPTION_CALL_OPEN_INTEREST);
+    }
+
+    public Integer getOptionPutOpenInterest() {
+        return getInt(Types.OPTION_PUT_OPEN_INTEREST);
+    }
+
+    public Integer getOptionCallVolume() {
+        return getInt(Types.OPTION_CALL_VOLUME);
+    }
+
+    public Integer getOptionPutVolume() {
+        return getInt(Types.OPTION_PUT_VOLUME);
+    }
+
+    public Integer getActionVolume() {
+        return getInt(Types.ACTION_VOLUME);
+    }
+
+    public Integer getActionImbalance() {
+        return getInt(Types.ACTION_IMBALANCE);
+    }
+
+    public Integer getRegulatoryImbalance() {
+        return getInt(Types.REGULATORY_IMBALANCE);
+    }
+
+    public Integer getShortTermVolume3Min() {
+        return getInt(Types.SHORT_TERM_VOLUME3_MIN);
+    }
+
+    public Integer getShortTermVolume5Min() {
+        return getInt(Types.SHORT_TERM_VOLUME5_MIN);
+    }
+
+    public Integer getShortTermVolume10Min() {
+        return getInt(Types.SHORT_TERM_VOLUME10_MIN);
+    }
+
+    public Integer getDelayedBidSize() {
+        return getInt(Types.DELAYED_BID_SIZE);
+    }
+
+    public Integer getDelayedAskSize() {
+        return getInt(Types.DELAYED_ASK_SIZE);
+    }
+
+    public Integer getDelayedLastSize() {
+        return getInt(Types.DELAYED_LAST_SIZE);
+    }
+
+    public Integer getDelayedVolume() {
+        return getInt(Types.DELAYED_VOLUME);
+    }
+
+    public Integer getFuturesOpenInterest() {
+        return getInt(Types.FUTURES_OPEN_INTEREST);
+    }
+
+    public Integer getAverageOptionVolume() {
+        return getInt(Types.AVERAGE_OPTION_VOLUME);
+    }
+
+    public Integer getShortableShares() {
+        return getInt(Types.SHORTABLE_SHARES);
+    }
+
+    public BigDecimal getBid() {
+        return getDecimal(Types.BID);
+    }
+
+    public BigDecimal getAsk() {
+        return getDecimal(Types.ASK);
+    }
+
+    public BigDecimal getLastPrice() {
+        return getDecimal(Types.LAST);
+    }
+
+    public BigDecimal getHighPrice() {
+        return getDecimal(Types.HIGH);
+    }
+
+    public BigDecimal getLowPrice() {
+        return getDecimal(Types.LOW);
+    }
+
+    public BigDecimal getClosePrice() {
+        return getDecimal(Types.CLOSE_PRICE);
+    }
+
+    public BigDecimal getOpenTick() {
+        return getDecimal(Types.OPEN_TICK);
+    }
+
+    public BigDecimal getLow13Weeks() {
+        return getDecimal(Types.LOW13_WEEKS);
+    }
+
+    public BigDecimal getHigh13Weeks() {
+        return getDecimal(Types.HIGH13_WEEKS);
+    }
+
+    public BigDecimal getLow26Weeks() {
+        return getDecimal(Types.LOW26_WEEKS);
+    }
+
+    public BigDecimal getHigh26Weeks() {
+        return getDecimal(Types.HIGH26_WEEKS);
+    }
+
+    public BigDecimal getLow52Weeks() {
+        return getDecimal(Types.LOW52_WEEKS);
+    }
+
+    public BigDecimal getHigh52Weeks() {
+        return getDecimal(Types.HIGH52_WEEKS);
+    }
+
+    public BigDecimal getAuctionPrice() {
+        return getDecimal(Types.AUCTION_PRICE);
+    }
+
+    public BigDecimal getMarkPrice() {
+        return getDecimal(Types.MARK_PRICE);
+    }
+
+    public BigDecimal getBidYield() {
+        return getDecimal(Types.BID_YIELD);
+    }
+
+    public BigDecimal getAskYield() {
+        return getDecimal(Types.ASK_YIELD);
+    }
+
+    public BigDecimal getLastYield() {
+        return getDecimal(Types.LAST_YIELD);
+    }
+
+    public BigDecimal getLastRthTrade() {
+        return getDecimal(Types.LAST_RTHTRADE);
+    }
+
+    public BigDecimal getDelayedBid() {
+        return getDecimal(Types.DELAYED_BID);
+    }
+
+    public BigDecimal getDelayedAsk() {
+        return getDecimal(Types.DELAYED_ASK);
+    }
+
+    public BigDecimal getDelayedLast() {
+        return getDecimal(Types.DELAYED_LAST);
+    }
+
+    public BigDecimal getDelayedHighPrice() {
+        return getDecimal(Types.DELAYED_HIGH_PRICE);
+    }
+
+    public BigDecimal getDelayedLowPrice() {
+        return getDecimal(Types.DELAYED_LOW_PRICE);
+    }
+
+    public BigDecimal getDelayedClose() {
+        return getDecimal(Types.DELAYED_CLOSE);
+    }
+
+    public BigDecimal getDelayedOpen() {
+        return getDecimal(Types.DELAYED_OPEN);
+    }
+
+    public BigDecimal getCreditmanMarkPrice() {
+        return getDecimal(Types.CREDITMAN_MARK_PRICE);
+    }
+
+    public BigDecimal getCreditmanSlowMarkPrice() {
+        return getDecimal(Types.CREDITMAN_SLOW_MAR_KPRICE);
+    }
+
+    public BigDecimal getDelayedBidOption() {
+        return getDecimal(Types.DELAYED_BID_OPTION);
+    }
+
+    public BigDecimal getDelayedAskOption() {
+        return getDecimal(Types.DELAYED_ASK_OPTION);
+    }
+
+    public BigDecimal getDelayedLastOption() {
+        return getDecimal(Types.DELAYED_LAST_OPTION);
+    }
+
+    public BigDecimal getDelayedModelOption() {
+        return getDecimal(Types.DELAYED_MODEL_OPTION);
+    }
+
+    public String getBidExchange() {
+        return getString(Types.BID_EXCHANGE);
     }
 
-    public void refreshUpdateTime() {
-        updateTime = LocalDateTime.now();
+    public String getAskExchange() {
+        return getString(Types.ASK_EXCHANGE);
+    }
+
+    public String getLastTimestamp() {
+        return getString(Types.LAST_TIMESTAMP);
+    }
+
+    public String getRtVolume() {
+        return getString(Types.RT_VOLUME);
+    }
+
+    public String getIbDividends() {
+        return getString(Types.IB_DIVIDENDS);
+    }
+
+    public String getNews() {
+        return getString(Types.NEWS);
+    }
+
+    public String getRtTradeVolume() {
+        return getString(Types.RT_TRADE_VOLUME);
+    }
+
+    public String getLastExchange() {
+        return getString(Types.LAST_EXCHANGE);
+    }
+
+    public String getLastRegulatoryTime() {
+        return getString(Types.LAST_REGULATORY_TIME);
+    }
+
+    public String getDelayedLastTimestamp() {
+        return getString(Types.DELAYED_LAST_TIMESTAMP);
+    }
+
+    public BigDecimal getOptionHistoricalVolatility() {
+        return getDecimal(Types.OPTION_HISTORICAL_VOLATILITY);
+    }
+
+    public BigDecimal getOptionImpliedVolatility() {
+        return getDecimal(Types.OPTION_IMPLIED_VOLATILITY);
+    }
+
+    public BigDecimal getIndexFuturePremium() {
+        return getDecimal(Types.INDEX_FUTURE_PREMIUM);
+    }
+
+    public BigDecimal getShortable() {
+        return getDecimal(Types.SHORTABLE);
+    }
+
+    public BigDecimal getHalted() {
+        return getDecimal(Types.HALTED);
+    }
+
+    public BigDecimal getTradeCount() {
+        return getDecimal(Types.TRADE_COUNT);
+    }
+
+    public BigDecimal getTradeRate() {
+        return getDecimal(Types.TRADE_RATE);
+    }
+
+    public BigDecimal getVolumeRate() {
+        return getDecimal(Types.VOLUME_RATE);
+    }
+
+    public BigDecimal getRtHistoricalVolatility() {
+        return getDecimal(Types.RT_HISTORICAL_VOLATILITY);
+    }
+
+    private Integer getInt(Types type) {
+        return store.has(type) ? (int) store.getLong(type) : null;
+    }
+
+    private BigDecimal getDecimal(Types type) {
+        double value = store.getDouble(type);
+        return !Double.isNaN(value) ? BigDecimal.valueOf(value) : null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder("IbTick(");
+        for (Types type : Types.values()) {
+            if (!store.has(type)) {
+                continue;
+            }
+            buffer.append(type).append('=');
+            switch (type.kind) {
+                case SIZE -> buffer.append(store.getLong(type));
+                case PRICE, GENERIC -> buffer.append(store.getDouble(type));
+                default -> buffer.append(store.getString(type));
+            }
+            buffer.append(", ");
+        }
+        buffer.append("updateTime=").append(getUpdateTime()).append(')');
+        return buffer.toString();
+    }
+
+    public enum Kind {
+        NONE,
+        SIZE,
+        PRICE,
+        GENERIC,
+        STRING,
     }
 
     public enum Types {
-        UNKNOWN(-1),
-        BID_SIZE(0),
-        BID(1),
-        ASK(2),
-        ASK_SIZE(3),
-        LAST(4),
-        LAST_SIZE(5),
-        HIGH(6),
-        LOW(7),
-        VOLUME(8),
-        CLOSE_PRICE(9),
-        OPEN_TICK(14),
-        LOW13_WEEKS(15),
-        HIGH13_WEEKS(16),
-        LOW26_WEEKS(17),
-        HIGH26_WEEKS(18),
-        LOW52_WEEKS(19),
-        HIGH52_WEEKS(20),
-        VOLUME_AVERAGE(21),
-        OPTION_HISTORICAL_VOLATILITY(23),
-        OPTION_IMPLIED_VOLATILITY(24),
-        OPTION_CALL_OPEN_INTEREST(27),
-        OPTION_PUT_OPEN_INTEREST(28),
-        OPTION_CALL_VOLUME(29),
-        OPTION_PUT_VOLUME(30),
-        INDEX_FUTURE_PREMIUM(31),
-        BID_EXCHANGE(32),
-        ASK_EXCHANGE(33),
-        ACTION_VOLUME(34),
-        AUCTION_PRICE(35),
-        ACTION_IMBALANCE(36),
-        MARK_PRICE(37),
-        LAST_TIMESTAMP(45),
-        SHORTABLE(46),
-        RT_VOLUME(48),
-        HALTED(49),
-        BID_YIELD(50),
-        ASK_YIELD(51),
-        LAST_YIELD(52),
-        TRADE_COUNT(54),
-        TRADE_RATE(55),
-        VOLUME_RATE(56),
-        LAST_RTHTRADE(57),
-        RT_HISTORICAL_VOLATILITY(58),
-        IB_DIVIDENDS(59),
-        REGULATORY_IMBALANCE(61),
-        NEWS(62),
-        SHORT_TERM_VOLUME3_MIN(63),
-        SHORT_TERM_VOLUME5_MIN(64),
-        SHORT_TERM_VOLUME10_MIN(65),
-        DELAYED_BID(66),
-        DELAYED_ASK(67),
-        DELAYED_LAST(68),
-        DELAYED_BID_SIZE(69),
-        DELAYED_ASK_SIZE(70),
-        DELAYED_LAST_SIZE(71),
-        DELAYED_HIGH_PRICE(72),
-        DELAYED_LOW_PRICE(73),
-        DELAYED_VOLUME(74),
-        DELAYED_CLOSE(75),
-        DELAYED_OPEN(76),
-        RT_TRADE_VOLUME(77),
-        CREDITMAN_MARK_PRICE(78),
-        CREDITMAN_SLOW_MAR_KPRICE(79),
-        DELAYED_BID_OPTION(80),
-        DELAYED_ASK_OPTION(81),
-        DELAYED_LAST_OPTION(82),
-        DELAYED_MODEL_OPTION(83),
-        LAST_EXCHANGE(84),
-        LAST_REGULATORY_TIME(85),
-        FUTURES_OPEN_INTEREST(86),
-        AVERAGE_OPTION_VOLUME(87),
-        DELAYED_LAST_TIMESTAMP(88),
-        SHORTABLE_SHARES(89);
-
-        private static final Map<Integer, Types> map = new HashMap<>();
+        UNKNOWN(-1, Kind.NONE),
+        BID_SIZE(0, Kind.SIZE),
+        BID(1, Kind.PRICE),
+        ASK(2, Kind.PRICE),
+        ASK_SIZE(3, Kind.SIZE),
+        LAST(4, Kind.PRICE),
+        LAST_SIZE(5, Kind.SIZE),
+        HIGH(6, Kind.PRICE),
+        LOW(7, Kind.PRICE),
+        VOLUME(8, Kind.SIZE),
+        CLOSE_PRICE(9, Kind.PRICE),
+        OPEN_TICK(14, Kind.PRICE),
+        LOW13_WEEKS(15, Kind.PRICE),
+        HIGH13_WEEKS(16, Kind.PRICE),
+        LOW26_WEEKS(17, Kind.PRICE),
+        HIGH26_WEEKS(18, Kind.PRICE),
+        LOW52_WEEKS(19, Kind.PRICE),
+        HIGH52_WEEKS(20, Kind.PRICE),
+        VOLUME_AVERAGE(21, Kind.SIZE),
+        OPTION_HISTORICAL_VOLATILITY(23, Kind.GENERIC),
+        OPTION_IMPLIED_VOLATILITY(24, Kind.GENERIC),
+        OPTION_CALL_OPEN_INTEREST(27, Kind.SIZE),
+        OPTION_PUT_OPEN_INTEREST(28, Kind.SIZE),
+        OPTION_CALL_VOLUME(29, Kind.SIZE),
+        OPTION_PUT_VOLUME(30, Kind.SIZE),
+        INDEX_FUTURE_PREMIUM(31, Kind.GENERIC),
+        BID_EXCHANGE(32, Kind.STRING),
+        ASK_EXCHANGE(33, Kind.STRING),
+        ACTION_VOLUME(34, Kind.SIZE),
+        AUCTION_PRICE(35, Kind.PRICE),
+        ACTION_IMBALANCE(36, Kind.SIZE),
+        MARK_PRICE(37, Kind.PRICE),
+        LAST_TIMESTAMP(45, Kind.STRING),
+        SHORTABLE(46, Kind.GENERIC),
+        RT_VOLUME(48, Kind.STRING),
+        HALTED(49, Kind.GENERIC),
+        BID_YIELD(50, Kind.PRICE),
+        ASK_YIELD(51, Kind.PRICE),
+        LAST_YIELD(52, Kind.PRICE),
+        TRADE_COUNT(54, Kind.GENERIC),
+        TRADE_RATE(55, Kind.GENERIC),
+        VOLUME_RATE(56, Kind.GENERIC),
+        LAST_RTHTRADE(57, Kind.PRICE),
+        RT_HISTORICAL_VOLATILITY(58, Kind.GENERIC),
+        IB_DIVIDENDS(59, Kind.STRING),
+        REGULATORY_IMBALANCE(61, Kind.SIZE),
+        NEWS(62, Kind.STRING),
+        SHORT_TERM_VOLUME3_MIN(63, Kind.SIZE),
+        SHORT_TERM_VOLUME5_MIN(64, Kind.SIZE),
+        SHORT_TERM_VOLUME10_MIN(65, Kind.SIZE),
+        DELAYED_BID(66, Kind.PRICE),
+        DELAYED_ASK(67, Kind.PRICE),
+        DELAYED_LAST(68, Kind.PRICE),
+        DELAYED_BID_SIZE(69, Kind.SIZE),
+        DELAYED_ASK_SIZE(70, Kind.SIZE),
+        DELAYED_LAST_SIZE(71, Kind.SIZE),
+        DELAYED_HIGH_PRICE(72, Kind.PRICE),
+        DELAYED_LOW_PRICE(73, Kind.PRICE),
+        DELAYED_VOLUME(74, Kind.SIZE),
+        DELAYED_CLOSE(75, Kind.PRICE),
+        DELAYED_OPEN(76, Kind.PRICE),
+        RT_TRADE_VOLUME(77, Kind.STRING),
+        CREDITMAN_MARK_PRICE(78, Kind.PRICE),
+        CREDITMAN_SLOW_MAR_KPRICE(79, Kind.PRICE),
+        DELAYED_BID_OPTION(80, Kind.PRICE),
+        DELAYED_ASK_OPTION(81, Kind.PRICE),
+        DELAYED_LAST_OPTION(82, Kind.PRICE),
+        DELAYED_MODEL_OPTION(83, Kind.PRICE),
+        LAST_EXCHANGE(84, Kind.STRING),
+        LAST_REGULATORY_TIME(85, Kind.STRING),
+        FUTURES_OPEN_INTEREST(86, Kind.SIZE),
+        AVERAGE_OPTION_VOLUME(87, Kind.SIZE),
+        DELAYED_LAST_TIMESTAMP(88, Kind.STRING),
+        SHORTABLE_SHARES(89, Kind.SIZE);
+
+        // Tick types indexed by TWS tick type ID
+        private static final Types[] byValue;
 
         static {
+            int max = 0;
             for (Types type : values()) {
-                map.put(type.value, type);
+                max = Math.max(max, type.value);
+            }
+            byValue = new Types[max + 1];
+            for (Types type : values()) {
+                if (type.value >= 0) {
+                    byValue[type.value] = type;
+                }
             }
         }
 
-        private final Integer value;
+        private final int value;
+        private final Kind kind;
 
-        Types(Integer value) {
+        Types(int value, Kind kind) {
             this.value = value;
+            this.kind = kind;
         }
 
-        static Optional<Types> valueOf(Integer type) {
-            Types value = map.get(type);
+        /**
+         * @return tick type, or null if it is unknown
+         */
+        public static Types of(int type) {
+            Types value = find(type);
             if (value == null) {
                 log.warn("Unknown tick type: {}", type);
             }
-            return Optional.ofNullable(value);
+            return value;
+        }
+
+        /**
+         * Same as {@link #of(int)}, but without logging of unknown types.
+         */
+        public static Types find(int type) {
+            return type >= 0 && type < byValue.length ? byValue[type] : null;
         }
 
         public Integer getValue() {
             return value;
         }
+
+        public Kind getKind() {
+            return kind;
+        }
     }
 }
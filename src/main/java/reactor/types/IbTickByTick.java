@@ -0,0 +1,51 @@
+package reactor.types;
+
+import lombok.Data;
+
+/**
+ * Single tick-by-tick trade or quote.
+ *
+ * @implNote Trades have {@link #price} and {@link #size}, quotes have bid and ask fields, midpoints only
+ * {@link #price}. Unused fields are 0.
+ */
+@Data
+public class IbTickByTick {
+    private final int conid;
+    private final Kind kind;
+    /**
+     * Epoch seconds of the tick.
+     */
+    private final long time;
+    private final double price;
+    private final int size;
+    private final double bidPrice;
+    private final int bidSize;
+    private final double askPrice;
+    private final int askSize;
+    /**
+     * Exchange of a trade, null for quotes.
+     */
+    private final String exchange;
+
+    public enum Kind {
+        LAST("Last"),
+        ALL_LAST("AllLast"),
+        BID_ASK("BidAsk"),
+        MIDPOINT("MidPoint");
+
+        private final String text;
+
+        Kind(final String text) {
+            this.text = text;
+        }
+
+        public boolean isTrade() {
+            return this == LAST || this == ALL_LAST;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
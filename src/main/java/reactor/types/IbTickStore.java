@@ -0,0 +1,231 @@
+package reactor.types;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage of Level I market data fields of a single ticker.
+ *
+ * <p>Only received fields take space: a presence bitmask over {@link IbTick.Types} ordinals tells which fields
+ * exist, and their values are packed in primitive arrays in ordinal order. The position of a field in the packed
+ * array is the number of present fields before it, so a read is a couple of bit operations and one array access.
+ * Prices and generic values are kept as raw double bits in the same {@code long[]} as sizes.
+ *
+ * @implNote Arrays grow only when a field is received for the first time, updates of existing fields don't
+ * allocate.
+ */
+public class IbTickStore {
+
+    private static final IbTick.Types[] TYPES = IbTick.Types.values();
+    private static final long[] EMPTY_NUMBERS = new long[0];
+    private static final String[] EMPTY_STRINGS = new String[0];
+
+    // Bits of numeric (size, price, generic) and string fields over type ordinals
+    private static final long NUMERIC_MASK_LOW;
+    private static final long NUMERIC_MASK_HIGH;
+    private static final long STRING_MASK_LOW;
+    private static final long STRING_MASK_HIGH;
+
+    static {
+        if (TYPES.length > Long.SIZE * 2) {
+            throw new IllegalStateException("Too many tick types for the presence mask");
+        }
+
+        long numericLow = 0;
+        long numericHigh = 0;
+        long stringLow = 0;
+        long stringHigh = 0;
+        for (IbTick.Types type : TYPES) {
+            int index = type.ordinal();
+            switch (type.getKind()) {
+                case SIZE, PRICE, GENERIC -> {
+                    if (index < Long.SIZE) {
+                        numericLow |= 1L << index;
+                    } else {
+                        numericHigh |= 1L << (index - Long.SIZE);
+                    }
+                }
+                case STRING -> {
+                    if (index < Long.SIZE) {
+                        stringLow |= 1L << index;
+                    } else {
+                        stringHigh |= 1L << (index - Long.SIZE);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        NUMERIC_MASK_LOW = numericLow;
+        NUMERIC_MASK_HIGH = numericHigh;
+        STRING_MASK_LOW = stringLow;
+        STRING_MASK_HIGH = stringHigh;
+    }
+
+    private long presentLow;
+    private long presentHigh;
+    private long[] numbers = EMPTY_NUMBERS;
+    private String[] strings = EMPTY_STRINGS;
+    // Epoch nanoseconds
+    private long updateTime;
+
+    private IbTick view;
+
+    public synchronized boolean has(IbTick.Types type) {
+        return isPresent(type.ordinal());
+    }
+
+    /**
+     * @return value of a price or generic field, or NaN if it's not received yet or the field is not a price or
+     *         generic one
+     */
+    public synchronized double getDouble(IbTick.Types type) {
+        int index = type.ordinal();
+        if (!isDouble(type) || !isPresent(index)) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(numbers[numericRank(index)]);
+    }
+
+    /**
+     * @return value of a size field, or {@link Long#MIN_VALUE} if it's not received yet or the field is not a size
+     */
+    public synchronized long getLong(IbTick.Types type) {
+        int index = type.ordinal();
+        if (type.getKind() != IbTick.Kind.SIZE || !isPresent(index)) {
+            return Long.MIN_VALUE;
+        }
+        return numbers[numericRank(index)];
+    }
+
+    /**
+     * @return value of a string field, or null if it's not received yet or the field is not a string
+     */
+    public synchronized String getString(IbTick.Types type) {
+        int index = type.ordinal();
+        if (type.getKind() != IbTick.Kind.STRING || !isPresent(index)) {
+            return null;
+        }
+        return strings[stringRank(index)];
+    }
+
+    public synchronized void setDouble(IbTick.Types type, double value) {
+        if (!isDouble(type)) {
+            throw new IllegalArgumentException("Tick " + type + " is not a price or generic value");
+        }
+        setNumber(type.ordinal(), Double.doubleToRawLongBits(value));
+    }
+
+    public synchronized void setLong(IbTick.Types type, long value) {
+        if (type.getKind() != IbTick.Kind.SIZE) {
+            throw new IllegalArgumentException("Tick " + type + " is not a size");
+        }
+        setNumber(type.ordinal(), value);
+    }
+
+    public synchronized void setString(IbTick.Types type, String value) {
+        if (type.getKind() != IbTick.Kind.STRING) {
+            throw new IllegalArgumentException("Tick " + type + " is not a string");
+        }
+        int index = type.ordinal();
+        int rank = stringRank(index);
+        if (!isPresent(index)) {
+            strings = insert(strings, rank);
+            markPresent(index);
+        }
+        strings[rank] = value;
+    }
+
+    public synchronized long getUpdateTime() {
+        return updateTime;
+    }
+
+    public synchronized void setUpdateTime(long epochNanos) {
+        updateTime = epochNanos;
+    }
+
+    /**
+     * @return number of received fields
+     */
+    public synchronized int size() {
+        return Long.bitCount(presentLow) + Long.bitCount(presentHigh);
+    }
+
+    /**
+     * @return consistent copy of the store
+     */
+    public synchronized IbTickStore copy() {
+        IbTickStore result = new IbTickStore();
+        result.presentLow = presentLow;
+        result.presentHigh = presentHigh;
+        result.numbers = numbers.clone();
+        result.strings = strings.clone();
+        result.updateTime = updateTime;
+        return result;
+    }
+
+    /**
+     * @return {@link IbTick} backed by this store. The same instance is returned on every call
+     */
+    public synchronized IbTick view() {
+        if (view == null) {
+            view = new IbTick(this);
+        }
+        return view;
+    }
+
+    private void setNumber(int index, long bits) {
+        int rank = numericRank(index);
+        if (!isPresent(index)) {
+            numbers = insert(numbers, rank);
+            markPresent(index);
+        }
+        numbers[rank] = bits;
+    }
+
+    private static boolean isDouble(IbTick.Types type) {
+        return type.getKind() == IbTick.Kind.PRICE || type.getKind() == IbTick.Kind.GENERIC;
+    }
+
+    private boolean isPresent(int index) {
+        if (index < Long.SIZE) {
+            return (presentLow & (1L << index)) != 0;
+        }
+        return (presentHigh & (1L << (index - Long.SIZE))) != 0;
+    }
+
+    private void markPresent(int index) {
+        if (index < Long.SIZE) {
+            presentLow |= 1L << index;
+        } else {
+            presentHigh |= 1L << (index - Long.SIZE);
+        }
+    }
+
+    private int numericRank(int index) {
+        return rank(index, presentLow & NUMERIC_MASK_LOW, presentHigh & NUMERIC_MASK_HIGH);
+    }
+
+    private int stringRank(int index) {
+        return rank(index, presentLow & STRING_MASK_LOW, presentHigh & STRING_MASK_HIGH);
+    }
+
+    // Number of bits set below the index
+    private static int rank(int index, long low, long high) {
+        if (index < Long.SIZE) {
+            return Long.bitCount(low & ((1L << index) - 1));
+        }
+        return Long.bitCount(low) + Long.bitCount(high & ((1L << (index - Long.SIZE)) - 1));
+    }
+
+    private static long[] insert(long[] array, int position) {
+        long[] result = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, position, result, position + 1, array.length - position);
+        return result;
+    }
+
+    private static String[] insert(String[] array, int position) {
+        String[] result = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, position, result, position + 1, array.length - position);
+        return result;
+    }
+}
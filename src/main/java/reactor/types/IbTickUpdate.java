@@ -0,0 +1,23 @@
+package reactor.types;
+
+import lombok.Data;
+
+/**
+ * Immutable change of a single market data field.
+ *
+ * <p>Unlike {@link IbTick}, that is mutated by the reader thread, updates can be safely handed over to other
+ * threads. Consistent state of all fields is available with {@link IbTick#snapshot()}.
+ *
+ * @implNote {@link #value} is set for size, price and generic fields, {@link #text} for string fields.
+ */
+@Data
+public class IbTickUpdate {
+    private final int tickerId;
+    private final IbTick.Types field;
+    private final double value;
+    private final String text;
+    /**
+     * Epoch nanoseconds of the update receiving.
+     */
+    private final long timestamp;
+}
@@ -0,0 +1,51 @@
+package reactor.types;
+
+import com.ib.client.TickAttrib;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbTickStoreTest {
+
+    @Test
+    void typedGettersReturnAbsentValueForFieldsOfAnotherKind() {
+        IbTickStore store = new IbTickStore();
+        store.setLong(IbTick.Types.BID_SIZE, 100);
+        store.setDouble(IbTick.Types.BID, 1.5);
+        store.setString(IbTick.Types.BID_EXCHANGE, "ISLAND");
+
+        assertTrue(Double.isNaN(store.getDouble(IbTick.Types.BID_EXCHANGE)));
+        assertTrue(Double.isNaN(store.getDouble(IbTick.Types.BID_SIZE)));
+        assertEquals(Long.MIN_VALUE, store.getLong(IbTick.Types.BID));
+        assertEquals(Long.MIN_VALUE, store.getLong(IbTick.Types.BID_EXCHANGE));
+        assertNull(store.getString(IbTick.Types.BID));
+
+        assertEquals(100, store.getLong(IbTick.Types.BID_SIZE));
+        assertEquals(1.5, store.getDouble(IbTick.Types.BID));
+        assertEquals("ISLAND", store.getString(IbTick.Types.BID_EXCHANGE));
+    }
+
+    @Test
+    void viewGettersReturnAbsentValueForFieldsOfAnotherKind() {
+        IbTick tick = new IbTick();
+        tick.setStringValue(1, IbTick.Types.BID_EXCHANGE.getValue(), "ARCA");
+        tick.setPriceValue(1, IbTick.Types.BID.getValue(), 2.25, new TickAttrib());
+
+        assertTrue(Double.isNaN(tick.getDouble(IbTick.Types.BID_EXCHANGE)));
+        assertEquals(Long.MIN_VALUE, tick.getLong(IbTick.Types.BID));
+        assertNull(tick.getString(IbTick.Types.BID));
+    }
+
+    @Test
+    void settersRejectFieldsOfAnotherKind() {
+        IbTickStore store = new IbTickStore();
+
+        assertThrows(IllegalArgumentException.class, () -> store.setDouble(IbTick.Types.BID_EXCHANGE, 1));
+        assertThrows(IllegalArgumentException.class, () -> store.setLong(IbTick.Types.BID, 1));
+        assertThrows(IllegalArgumentException.class, () -> store.setString(IbTick.Types.BID_SIZE, "1"));
+        assertEquals(0, store.size());
+    }
+}